@@ -0,0 +1,97 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+import queue.SpscArrayQueue;
+
+// Пакетная передача между двумя потоками через SpscArrayQueue: производитель публикует по BATCH элементов
+// через offer(T[], ...) одной release-записью, потребитель забирает их dequeueBatch.
+// Операция - один переданный элемент, поэтому результат сравним с HandOffBenchmark.
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandOffBatchBenchmark {
+    private static final int BATCH = 64;
+    private static final Integer VALUE = 1;
+
+    @Param({"1024"})
+    public int capacity;
+
+    private SpscArrayQueue<Integer> queue;
+
+    @State(Scope.Thread)
+    public static class Buffers {
+        final Integer[] values = new Integer[BATCH];
+        // targets[r] - приемник ровно на r элементов, чтобы потребитель не забирал больше BATCH за вызов
+        final Integer[][] targets = new Integer[BATCH + 1][];
+
+        @Setup
+        public void setUp() {
+            Arrays.fill(values, VALUE);
+            for (int r = 0; r <= BATCH; r++) {
+                targets[r] = new Integer[r];
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        queue = new SpscArrayQueue<>(capacity);
+    }
+
+    @Benchmark
+    @Group("batch")
+    @GroupThreads(1)
+    @OperationsPerInvocation(BATCH)
+    public int offer(Buffers buffers, Control control) {
+        int offered = 0;
+        while (offered < BATCH) {
+            int accepted = queue.offer(buffers.values, offered, BATCH - offered);
+            if (accepted == 0) {
+                if (control.stopMeasurement) {
+                    break;
+                }
+                Thread.onSpinWait();
+            }
+            offered += accepted;
+        }
+        return offered;
+    }
+
+    @Benchmark
+    @Group("batch")
+    @GroupThreads(1)
+    @OperationsPerInvocation(BATCH)
+    public int poll(Buffers buffers, Control control) {
+        int taken = 0;
+        while (taken < BATCH) {
+            int count = queue.dequeueBatch(buffers.targets[BATCH - taken]);
+            if (count == 0) {
+                if (control.stopMeasurement) {
+                    break;
+                }
+                Thread.onSpinWait();
+            }
+            taken += count;
+        }
+        return taken;
+    }
+}
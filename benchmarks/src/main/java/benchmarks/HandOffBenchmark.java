@@ -0,0 +1,94 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+import queue.ConcurrentArrayQueue;
+import queue.SpscArrayQueue;
+
+// Пропускная способность передачи элементов между двумя потоками: один поток только добавляет,
+// другой только извлекает. Результаты группы "offer" и "poll" - операции в микросекунду для каждой стороны.
+// Пакетная передача SpscArrayQueue измеряется в HandOffBatchBenchmark.
+// ConcurrentArrayQueue - точка сравнения: та же передача через CAS-очередь для многих потоков.
+// На машине с одним ядром потоки группы чередуются, и результат показывает только накладные расходы.
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandOffBenchmark {
+    private static final Integer VALUE = 1;
+
+    @Param({"SpscArrayQueue", "ConcurrentArrayQueue"})
+    public String implementation;
+
+    @Param({"1024"})
+    public int capacity;
+
+    private SpscArrayQueue<Integer> spsc;
+    private ConcurrentArrayQueue<Integer> concurrent;
+
+    @Setup
+    public void setUp() {
+        spsc = new SpscArrayQueue<>(capacity);
+        concurrent = new ConcurrentArrayQueue<>(capacity);
+    }
+
+    @Benchmark
+    @Group("handOff")
+    @GroupThreads(1)
+    public boolean offer(Control control) {
+        if ("SpscArrayQueue".equals(implementation)) {
+            while (!spsc.offer(VALUE)) {
+                if (control.stopMeasurement) {
+                    return false;
+                }
+                Thread.onSpinWait();
+            }
+        } else {
+            while (!concurrent.offer(VALUE)) {
+                if (control.stopMeasurement) {
+                    return false;
+                }
+                Thread.onSpinWait();
+            }
+        }
+        return true;
+    }
+
+    @Benchmark
+    @Group("handOff")
+    @GroupThreads(1)
+    public Integer poll(Control control) {
+        Integer value;
+        if ("SpscArrayQueue".equals(implementation)) {
+            while ((value = spsc.poll()) == null) {
+                if (control.stopMeasurement) {
+                    return null;
+                }
+                Thread.onSpinWait();
+            }
+        } else {
+            while ((value = concurrent.poll()) == null) {
+                if (control.stopMeasurement) {
+                    return null;
+                }
+                Thread.onSpinWait();
+            }
+        }
+        return value;
+    }
+}
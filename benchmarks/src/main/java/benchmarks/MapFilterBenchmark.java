@@ -0,0 +1,58 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import queue.ArrayQueue;
+import queue.LinkedQueue;
+import queue.Queue;
+
+// map/filter над реализациями Queue: две промежуточные очереди (eager) против одного прохода (lazy).
+// Время указано на всю цепочку над size элементами; с -prof gc видно, сколько байт выделяет каждая.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapFilterBenchmark {
+    @Param({"ArrayQueue", "LinkedQueue"})
+    public String implementation;
+
+    @Param({"1024", "65536"})
+    public int size;
+
+    private Queue<Integer> queue;
+
+    @Setup
+    public void setUp() {
+        queue = "ArrayQueue".equals(implementation) ? new ArrayQueue<>() : new LinkedQueue<>();
+        for (int i = 0; i < size; i++) {
+            queue.enqueue(i);
+        }
+    }
+
+    @Benchmark
+    public Queue<Integer> eager() {
+        return queue.map(x -> x * 3).filter(x -> (x & 1) == 0);
+    }
+
+    @Benchmark
+    public Queue<Integer> lazy() {
+        return queue.lazy().map(x -> x * 3).filter(x -> (x & 1) == 0).toQueue();
+    }
+
+    @Benchmark
+    public int lazyCount() {
+        return queue.lazy().map(x -> x * 3).filter(x -> (x & 1) == 0).count();
+    }
+}
@@ -0,0 +1,153 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import queue.ArrayQueue;
+import queue.ArrayQueueADT;
+import queue.ArrayQueueModule;
+import queue.LinkedQueue;
+
+// Базовые операции четырех реализаций очереди. ArrayQueueADT и ArrayQueueModule не реализуют Queue,
+// поэтому все реализации приведены к общему интерфейсу Ops; вызов через него мономорфен в пределах
+// одного запуска (@Param фиксирует реализацию на весь форк).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueBenchmark {
+    private static final int INDEX_SAMPLES = 256;
+
+    @Param({"ArrayQueue", "LinkedQueue", "ArrayQueueADT", "ArrayQueueModule"})
+    public String implementation;
+
+    @Param({"16", "1024", "65536"})
+    public int size;
+
+    private Ops ops;
+    private Integer[] values;
+    private int[] indices;
+
+    private interface Ops {
+        void enqueue(Integer value);
+
+        Integer dequeue();
+
+        void push(Integer value);
+
+        Integer remove();
+
+        Integer get(int index);
+
+        void clear();
+    }
+
+    @Setup
+    public void setUp() {
+        ops = create(implementation);
+        ops.clear();
+        values = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = i;
+            ops.enqueue(values[i]);
+        }
+        Random random = new Random(42);
+        indices = new int[INDEX_SAMPLES];
+        for (int i = 0; i < INDEX_SAMPLES; i++) {
+            indices[i] = random.nextInt(size);
+        }
+    }
+
+    private static Ops create(String implementation) {
+        switch (implementation) {
+            case "ArrayQueue":
+                return fromQueue(new ArrayQueue<>());
+            case "LinkedQueue":
+                return fromQueue(new LinkedQueue<>());
+            case "ArrayQueueADT":
+                ArrayQueueADT<Integer> adt = new ArrayQueueADT<>();
+                return new Ops() {
+                    public void enqueue(Integer value) { ArrayQueueADT.enqueue(adt, value); }
+                    public Integer dequeue() { return ArrayQueueADT.dequeue(adt); }
+                    public void push(Integer value) { ArrayQueueADT.push(adt, value); }
+                    public Integer remove() { return ArrayQueueADT.remove(adt); }
+                    public Integer get(int index) { return ArrayQueueADT.get(adt, index); }
+                    public void clear() { ArrayQueueADT.clear(adt); }
+                };
+            case "ArrayQueueModule":
+                return new Ops() {
+                    public void enqueue(Integer value) { ArrayQueueModule.enqueue(value); }
+                    public Integer dequeue() { return (Integer) ArrayQueueModule.dequeue(); }
+                    public void push(Integer value) { ArrayQueueModule.push(value); }
+                    public Integer remove() { return (Integer) ArrayQueueModule.remove(); }
+                    public Integer get(int index) { return (Integer) ArrayQueueModule.get(index); }
+                    public void clear() { ArrayQueueModule.clear(); }
+                };
+            default:
+                throw new IllegalArgumentException("Unknown implementation: " + implementation);
+        }
+    }
+
+    private static Ops fromQueue(queue.Queue<Integer> queue) {
+        return new Ops() {
+            public void enqueue(Integer value) { queue.enqueue(value); }
+            public Integer dequeue() { return queue.dequeue(); }
+            public void push(Integer value) { queue.push(value); }
+            public Integer remove() { return queue.remove(); }
+            public Integer get(int index) { return queue.get(index); }
+            public void clear() { queue.clear(); }
+        };
+    }
+
+    // Установившийся режим FIFO: размер не меняется, массив не перераспределяется.
+    @Benchmark
+    public Integer enqueueDequeue() {
+        ops.enqueue(values[0]);
+        return ops.dequeue();
+    }
+
+    // Работа с противоположными концами: push в голову, remove с хвоста.
+    @Benchmark
+    public Integer pushRemove() {
+        ops.push(values[0]);
+        return ops.remove();
+    }
+
+    // Полный цикл: извлечь все size элементов и добавить их заново. Время указано на весь цикл;
+    // после clear кольцевые буферы без автосжатия переиспользуют массив, связный список выделяет узлы.
+    @Benchmark
+    public int drainAndRefill() {
+        int sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += ops.dequeue();
+        }
+        for (Integer value : values) {
+            ops.enqueue(value);
+        }
+        return sum;
+    }
+
+    // Чтение по индексу: O(1) у кольцевых буферов, O(min(i, n - i)) у связного списка.
+    @Benchmark
+    @OperationsPerInvocation(INDEX_SAMPLES)
+    public int indexedAccess() {
+        int sum = 0;
+        for (int index : indices) {
+            sum += ops.get(index);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,170 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import search.BinarySearch;
+import search.BinarySearch3637;
+import search.BitonicIndex;
+import search.EytzingerIndex;
+import search.VectorizedSearch;
+
+// Поиск по массивам разного размера: от помещающихся в L1 до десятков мегабайт.
+// Каждый вызов обрабатывает QUERIES заранее сгенерированных запросов, время указано на один запрос.
+//   - BinarySearch и EytzingerIndex (индекс строится в setUp): массив по невозрастанию; layout distinct - все элементы различны,
+//     duplicates - длинные серии равных элементов
+//   - BinarySearch3637: убывающая часть, затем возрастающая; layout задает положение излома
+//     (distinct - посередине, duplicates заменен на излом в первой восьмой части массива);
+//     BitonicIndex строится над тем же массивом в setUp
+// VectorizedSearch требует модуль jdk.incubator.vector, поэтому он добавляется в каждый форк.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class SearchBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"16", "1024", "65536", "4194304"})
+    public int size;
+
+    @Param({"distinct", "duplicates"})
+    public String layout;
+
+    private int[] nonIncreasing;
+    private int[] bitonic;
+    private BitonicIndex bitonicIndex;
+    private EytzingerIndex eytzinger;
+    private int[] queries;
+    private int[] sortedQueries;
+    private int[] results;
+    private int[] bitonicQueries;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        boolean duplicates = "duplicates".equals(layout);
+
+        nonIncreasing = new int[size];
+        for (int i = 0; i < size; i++) {
+            nonIncreasing[i] = duplicates ? (size - i) / 16 : 2 * (size - i);
+        }
+        eytzinger = new EytzingerIndex(nonIncreasing);
+        queries = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = nonIncreasing[random.nextInt(size)] + random.nextInt(2);
+        }
+
+        sortedQueries = queries.clone();
+        Arrays.sort(sortedQueries);
+        results = new int[QUERIES];
+
+        int breakpoint = duplicates ? size / 8 : size / 2;
+        bitonic = new int[size];
+        for (int i = 0; i < breakpoint; i++) {
+            bitonic[i] = 2 * (breakpoint - i) + 1;
+        }
+        for (int i = breakpoint; i < size; i++) {
+            bitonic[i] = 2 * (i - breakpoint) + 2;
+        }
+        bitonicIndex = new BitonicIndex(bitonic);
+        bitonicQueries = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            bitonicQueries[i] = random.nextInt(2 * size + 2);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int iterative() {
+        int sum = 0;
+        for (int x : queries) {
+            sum += BinarySearch.iterativeBinarySearch(x, nonIncreasing);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int recursive() {
+        int sum = 0;
+        for (int x : queries) {
+            sum += BinarySearch.recursiveBinarySearch(x, nonIncreasing, 0, nonIncreasing.length);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int[] batch() {
+        BinarySearch.batchSearch(queries, nonIncreasing, results);
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int[] batchSorted() {
+        BinarySearch.batchSearch(sortedQueries, nonIncreasing, results);
+        return results;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int eytzinger() {
+        int sum = 0;
+        for (int x : queries) {
+            sum += eytzinger.search(x);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int vectorized() {
+        int sum = 0;
+        for (int x : queries) {
+            sum += VectorizedSearch.search(x, nonIncreasing);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int bitonicVectorized() {
+        int sum = 0;
+        for (int x : bitonicQueries) {
+            sum += VectorizedSearch.firstIndexOf(x, bitonic);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int bitonic() {
+        int sum = 0;
+        for (int x : bitonicQueries) {
+            sum += BinarySearch3637.search(x, bitonic);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int[] bitonicIndex() {
+        bitonicIndex.firstIndexOf(bitonicQueries, results);
+        return results;
+    }
+}
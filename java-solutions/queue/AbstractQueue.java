@@ -1,15 +1,20 @@
 package queue;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Predicate;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 public abstract class AbstractQueue<T> implements Queue<T> {
     @Override
     public Queue<T> map(Function<? super T, T> foo) {
         AbstractQueue<T> result = createInstance();
-        for (T element : elements()) {
+        for (T element : this) {
             result.enqueue(foo.apply(element));
         }
         return result;
@@ -18,7 +23,7 @@ public abstract class AbstractQueue<T> implements Queue<T> {
     @Override
     public Queue<T> filter(Predicate<? super T> subInterface) {
         AbstractQueue<T> result = createInstance();
-        for (T element : elements()) {
+        for (T element : this) {
             if (subInterface.test(element)) {
                 result.enqueue(element);
             }
@@ -31,15 +36,132 @@ public abstract class AbstractQueue<T> implements Queue<T> {
         return size() == 0;
     }
 
+    @Override
+    public void enqueueAll(T[] elements) {
+        checkNotNull(elements);
+        for (T element : elements) {
+            enqueue(element);
+        }
+    }
+
+    // Пред: elements != null, elements != this, все элементы elements != null
+    // Пост: элементы добавлены в конец очереди в порядке обхода; если среди них есть null
+    //       или elements - сама очередь, бросается IllegalArgumentException и очередь не изменена
+    @Override
+    public void enqueueAll(Iterable<? extends T> elements) {
+        enqueueAll(snapshot(this, elements));
+    }
+
+    // Пред: elements != null
+    // Пост: возвращена копия elements в массиве, сделанная до изменения queue;
+    //       если elements - сама queue, бросается IllegalArgumentException
+    @SuppressWarnings("unchecked")
+    static <T> T[] snapshot(Queue<T> queue, Iterable<? extends T> elements) {
+        if (elements == queue) {
+            throw new IllegalArgumentException("Error: cannot enqueue a queue into itself");
+        }
+        if (elements instanceof Collection) {
+            return (T[]) ((Collection<?>) elements).toArray();
+        }
+        List<Object> copy = new ArrayList<>();
+        elements.forEach(copy::add);
+        return (T[]) copy.toArray();
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> target, int maxElements) {
+        if (maxElements < 0) {
+            throw new IllegalArgumentException("maxElements < 0");
+        }
+        int count = Math.min(maxElements, size());
+        for (int i = 0; i < count; i++) {
+            target.add(dequeue());
+        }
+        return count;
+    }
+
+    @Override
+    public int dequeueBatch(T[] target) {
+        int count = Math.min(target.length, size());
+        for (int i = 0; i < count; i++) {
+            target[i] = dequeue();
+        }
+        return count;
+    }
+
+    // Пред: operator != null, operator не возвращает null
+    // Пост: каждый элемент e заменен на operator(e) на месте; очередь прокручивается один раз.
+    //       Если operator выбросил исключение, порядок элементов сохранен
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        int remaining = size();
+        try {
+            for (; remaining > 0; remaining--) {
+                T value = operator.apply(element());
+                if (value == null) {
+                    throw new IllegalArgumentException("Value cannot be null");
+                }
+                dequeue();
+                enqueue(value);
+            }
+        } finally {
+            rotate(remaining);
+        }
+    }
+
+    // Пред: filter != null
+    // Пост: удалены элементы, удовлетворяющие filter, порядок остальных сохранен;
+    //       возвращено true, если что-то удалено
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        int size = size();
+        int remaining = size;
+        try {
+            for (; remaining > 0; remaining--) {
+                if (filter.test(element())) {
+                    dequeue();
+                } else {
+                    enqueue(dequeue());
+                }
+            }
+        } finally {
+            rotate(remaining);
+        }
+        return size() != size;
+    }
+
+    private void rotate(int count) {
+        for (; count > 0; count--) {
+            enqueue(dequeue());
+        }
+    }
+
+    // Пред: elements != null
+    // Пост: ни один элемент elements не равен null, иначе IllegalArgumentException и очередь не изменена
+    protected static void checkNotNull(Object[] elements) {
+        for (Object element : elements) {
+            if (element == null) {
+                throw new IllegalArgumentException("Element cannot be null");
+            }
+        }
+    }
+
     protected abstract AbstractQueue<T> createInstance();
 
-    protected abstract List<T> elements();
+    // Пред: 0 <= index < size() (отсчет с головы)
+    // Пост: возвращен элемент по индексу без копирования очереди
+    protected abstract T elementAt(int index);
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED | Spliterator.NONNULL);
+    }
 
     public T peek() {
         if (isEmpty()) {
             throw new NoSuchElementException("Queue is empty");
         }
-        return elements().get(elements().size() - 1);
+        return elementAt(size() - 1);
     }
 
     public T remove() {
@@ -60,19 +182,17 @@ public abstract class AbstractQueue<T> implements Queue<T> {
     protected abstract void dequeueLast();
 
     public T get(int index) {
-        List<T> elements = elements();
-        if (index < 0 || index >= elements.size()) {
+        if (index < 0 || index >= size()) {
             throw new IndexOutOfBoundsException("Invalid index");
         }
-        return elements.get(index);
+        return elementAt(index);
     }
 
     public void set(int index, T value) {
         if (value == null) {
             throw new IllegalArgumentException("Value cannot be null");
         }
-        List<T> elements = elements();
-        if (index < 0 || index >= elements.size()) {
+        if (index < 0 || index >= size()) {
             throw new IndexOutOfBoundsException("Invalid index");
         }
         updateElement(index, value);
@@ -1,27 +1,60 @@
 package queue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 public class ArrayQueue<T> extends AbstractQueue<T> {
     private T[] queue;
     private int head;
     private int tail;
     private int size;
+    private int modCount;
+    private final int initialCapacity;
+    private final boolean autoShrink;
+    private int parallelThreshold = Integer.MAX_VALUE;
+    private ResizeListener resizeListener;
+
+    private static final int MIN_SEGMENT = 4096;
 
     // модель: очередь, представляющая собой последовательность элементов, упорядоченных по принципу FIFO
     // инвариант:
-    //   - queue != null
+    //   - queue != null, queue.length - степень двойки
     //   - 0 <= head, tail < queue.length
     //   - size >= 0
     //   - элементы не равны null
 
-    @SuppressWarnings("unchecked")
     public ArrayQueue() {
         // Пред: нет (конструктор)
-        // Пост: создана пустая очередь с начальной емкостью 10
-        queue = (T[]) new Object[1];
+        // Пост: создана пустая очередь с начальной емкостью DEFAULT_CAPACITY
+        this(RingBuffers.DEFAULT_CAPACITY);
+    }
+
+    public ArrayQueue(int initialCapacity) {
+        // Пред: initialCapacity >= 0
+        // Пост: создана пустая очередь с емкостью не меньше initialCapacity, без автоматического сжатия
+        this(initialCapacity, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ArrayQueue(int initialCapacity, boolean autoShrink) {
+        // Пред: initialCapacity >= 0
+        // Пост: создана пустая очередь с емкостью не меньше initialCapacity;
+        //       если autoShrink, емкость уменьшается вдвое, когда очередь заполнена не более чем на четверть
+        this.initialCapacity = RingBuffers.capacityFor(initialCapacity);
+        this.autoShrink = autoShrink;
+        queue = (T[]) new Object[this.initialCapacity];
         head = tail = size = 0;
     }
 
@@ -33,8 +66,9 @@ public class ArrayQueue<T> extends AbstractQueue<T> {
         }
         if (size == queue.length) resize();
         queue[tail] = value;
-        tail = (tail + 1) % queue.length;
+        tail = (tail + 1) & (queue.length - 1);
         size++;
+        modCount++;
     }
 
     public void push(T value) {
@@ -46,22 +80,137 @@ public class ArrayQueue<T> extends AbstractQueue<T> {
         if (size == queue.length) {
             resize();
         }
-        head = (head - 1 + queue.length) % queue.length;
+        head = (head - 1) & (queue.length - 1);
         queue[head] = value;
         size++;
+        modCount++;
     }
 
-    @SuppressWarnings("unchecked")
     private void resize() {
         // Пред: массив заполнен (size == queue.length)
         // Пост: емкость массива увеличена вдвое, порядок элементов сохранен
-        T[] newQueue = (T[]) new Object[queue.length * 2];
-        for (int i = 0; i < size; i++) {
-            newQueue[i] = queue[(head + i) % queue.length];
-        }
+        reallocate(RingBuffers.grownCapacity(queue.length));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void reallocate(int capacity) {
+        // Пред: capacity - степень двойки, capacity >= size
+        // Пост: элементы перенесены в начало нового массива емкости capacity, порядок сохранен
+        T[] newQueue = (T[]) new Object[capacity];
+        RingBuffers.unwrap(queue, queue.length, head, size, newQueue);
+        int oldCapacity = queue.length;
         queue = newQueue;
         head = 0;
-        tail = size;
+        tail = size & (capacity - 1);
+        fireResize(oldCapacity, size);
+    }
+
+    private void fireResize(int oldCapacity, int copied) {
+        if (resizeListener != null) {
+            resizeListener.onResize(oldCapacity, queue.length, copied);
+        }
+    }
+
+    public void setResizeListener(ResizeListener listener) {
+        // Пред: нет
+        // Пост: listener вызывается при каждой замене массива (рост, сжатие, ensureCapacity, trimToSize,
+        //       сброс к начальной емкости в clear); null отключает уведомления
+        resizeListener = listener;
+    }
+
+    public ResizeListener resizeListener() {
+        // Пред: нет
+        // Пост: возвращен текущий наблюдатель или null
+        return resizeListener;
+    }
+
+    private void shrinkIfSparse() {
+        // Пред: нет
+        // Пост: если включено автоматическое сжатие и очередь разрежена, емкость уменьшена вдвое
+        if (autoShrink) {
+            int capacity = RingBuffers.shrunkCapacity(queue.length, size, initialCapacity);
+            if (capacity < queue.length) {
+                reallocate(capacity);
+            }
+        }
+    }
+
+    public void ensureCapacity(int capacity) {
+        // Пред: capacity >= 0
+        // Пост: емкость массива не меньше capacity, порядок элементов сохранен
+        if (capacity > queue.length) {
+            reallocate(RingBuffers.capacityFor(capacity));
+        }
+    }
+
+    public void trimToSize() {
+        // Пред: нет
+        // Пост: емкость массива уменьшена до минимальной степени двойки, вмещающей size элементов
+        int capacity = RingBuffers.capacityFor(size);
+        if (capacity < queue.length) {
+            reallocate(capacity);
+        }
+    }
+
+    public int capacity() {
+        // Пред: нет
+        // Пост: возвращена текущая емкость массива
+        return queue.length;
+    }
+
+    @Override
+    public void enqueueAll(T[] elements) {
+        // Пред: elements != null, все элементы elements != null
+        // Пост: элементы добавлены в конец очереди в порядке массива не более чем двумя копированиями,
+        //       size увеличен на elements.length
+        checkNotNull(elements);
+        ensureCapacity(RingBuffers.requiredCapacity(size, elements.length));
+        RingBuffers.wrap(elements, elements.length, queue, queue.length, tail);
+        tail = (tail + elements.length) & (queue.length - 1);
+        size += elements.length;
+        modCount++;
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> target, int maxElements) {
+        // Пред: target != null, maxElements >= 0
+        // Пост: min(maxElements, size) первых элементов удалены и добавлены в target в порядке очереди;
+        //       возвращено их количество
+        if (maxElements < 0) {
+            throw new IllegalArgumentException("maxElements < 0");
+        }
+        int count = Math.min(maxElements, size);
+        int remaining = count;
+        while (remaining > 0) {
+            // инвариант: ровно count - remaining элементов добавлены в target и удалены из очереди,
+            //            поэтому исключение из target.addAll не дублирует уже перенесенные элементы
+            int chunk = Math.min(remaining, queue.length - head);
+            target.addAll(Arrays.asList(queue).subList(head, head + chunk));
+            discardFirst(chunk);
+            remaining -= chunk;
+        }
+        return count;
+    }
+
+    @Override
+    public int dequeueBatch(T[] target) {
+        // Пред: target != null
+        // Пост: min(target.length, size) первых элементов удалены и записаны в начало target
+        //       не более чем двумя копированиями; возвращено их количество
+        int count = Math.min(target.length, size);
+        RingBuffers.unwrap(queue, queue.length, head, count, target);
+        discardFirst(count);
+        return count;
+    }
+
+    private void discardFirst(int count) {
+        // Пред: 0 <= count <= size
+        // Пост: первые count элементов удалены из очереди
+        RingBuffers.clear(queue, head, count);
+        head = (head + count) & (queue.length - 1);
+        size -= count;
+        modCount++;
+        shrinkIfSparse();
     }
 
     public T element() {
@@ -80,7 +229,7 @@ public class ArrayQueue<T> extends AbstractQueue<T> {
         if (isEmpty()) {
             throw new NoSuchElementException("Queue is empty!");
         }
-        return queue[(tail - 1 + queue.length) % queue.length];
+        return elementAt(size - 1);
     }
 
     public T dequeue() {
@@ -88,8 +237,10 @@ public class ArrayQueue<T> extends AbstractQueue<T> {
         // Пост: первый элемент удален и возвращен, size уменьшен на 1
         T value = element();
         queue[head] = null;
-        head = (head + 1) % queue.length;
+        head = (head + 1) & (queue.length - 1);
         size--;
+        modCount++;
+        shrinkIfSparse();
         return value;
     }
 
@@ -98,9 +249,11 @@ public class ArrayQueue<T> extends AbstractQueue<T> {
         // Пред: очередь не пуста (size > 0)
         // Пост: последний элемент удален и возвращен, size уменьшен на 1
         T value = peek();
-        tail = (tail - 1 + queue.length) % queue.length;
+        tail = (tail - 1) & (queue.length - 1);
         queue[tail] = null;
         size--;
+        modCount++;
+        shrinkIfSparse();
         return value;
     }
 
@@ -116,18 +269,226 @@ public class ArrayQueue<T> extends AbstractQueue<T> {
         return size == 0;
     }
 
+    public void setParallelThreshold(int threshold) {
+        // Пред: threshold >= 0
+        // Пост: map и filter выполняются параллельно, если size >= threshold
+        //       (по умолчанию Integer.MAX_VALUE, т.е. всегда последовательно)
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Error: threshold < 0");
+        }
+        parallelThreshold = threshold;
+    }
+
+    public int parallelThreshold() {
+        // Пред: нет
+        // Пост: возвращен порог размера, начиная с которого map и filter выполняются параллельно
+        return parallelThreshold;
+    }
+
+    @Override
+    public Queue<T> map(Function<? super T, T> foo) {
+        return size >= parallelThreshold ? parallelMap(foo) : super.map(foo);
+    }
+
+    @Override
+    public Queue<T> filter(Predicate<? super T> predicate) {
+        return size >= parallelThreshold ? parallelFilter(predicate) : super.filter(predicate);
+    }
+
+    public Queue<T> parallelMap(Function<? super T, T> foo) {
+        // Пред: foo != null, foo не возвращает null и не изменяет очередь
+        // Пост: возвращена новая очередь из foo(e) для каждого элемента e в том же порядке;
+        //       кольцо разбито на непрерывные отрезки, которые обрабатываются в общем ForkJoinPool
+        return collect(new Segments(foo, null));
+    }
+
+    public Queue<T> parallelFilter(Predicate<? super T> predicate) {
+        // Пред: predicate != null, predicate не изменяет очередь
+        // Пост: возвращена новая очередь из элементов, удовлетворяющих predicate, в том же порядке
+        return collect(new Segments(null, predicate));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Queue<T> collect(Segments segments) {
+        int expectedModCount = modCount;
+        List<RecursiveTask<Object[]>> tasks = segments.split();
+        ForkJoinTask.invokeAll(tasks);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        int total = 0;
+        for (RecursiveTask<Object[]> task : tasks) {
+            total += task.join().length;
+        }
+        ArrayQueue<T> result = new ArrayQueue<>(Math.max(initialCapacity, total), autoShrink);
+        for (RecursiveTask<Object[]> task : tasks) {
+            Object[] part = task.join();
+            System.arraycopy(part, 0, result.queue, result.size, part.length);
+            result.size += part.length;
+        }
+        result.tail = result.size & (result.queue.length - 1);
+        result.parallelThreshold = parallelThreshold;
+        return result;
+    }
+
+    private class Segments {
+        private final Function<? super T, T> function;
+        private final Predicate<? super T> predicate;
+
+        Segments(Function<? super T, T> function, Predicate<? super T> predicate) {
+            this.function = function;
+            this.predicate = predicate;
+        }
+
+        List<RecursiveTask<Object[]>> split() {
+            // Пред: нет
+            // Пост: логический диапазон [0, size) разбит на отрезки по порядку; отрезок, пересекающий
+            //       границу массива, обрабатывается как две непрерывные части
+            int length = Math.max(MIN_SEGMENT, size / (ForkJoinPool.getCommonPoolParallelism() * 4) + 1);
+            List<RecursiveTask<Object[]>> tasks = new ArrayList<>();
+            for (int from = 0; from < size; from += length) {
+                int start = from;
+                int count = Math.min(length, size - from);
+                tasks.add(new RecursiveTask<>() {
+                    @Override
+                    protected Object[] compute() {
+                        return apply(start, count);
+                    }
+                });
+            }
+            return tasks;
+        }
+
+        private Object[] apply(int from, int count) {
+            Object[] result = new Object[count];
+            int kept = 0;
+            int physical = (head + from) & (queue.length - 1);
+            int first = Math.min(count, queue.length - physical);
+            kept = apply(physical, physical + first, result, kept);
+            kept = apply(0, count - first, result, kept);
+            return kept == count ? result : Arrays.copyOf(result, kept);
+        }
+
+        private int apply(int from, int to, Object[] result, int kept) {
+            for (int i = from; i < to; i++) {
+                T element = queue[i];
+                if (function != null) {
+                    T value = function.apply(element);
+                    if (value == null) {
+                        throw new IllegalArgumentException("Error because value == null");
+                    }
+                    result[kept++] = value;
+                } else if (predicate.test(element)) {
+                    result[kept++] = element;
+                }
+            }
+            return kept;
+        }
+    }
+
     @Override
     protected AbstractQueue<T> createInstance() {
-        return new ArrayQueue<>();
+        // Пред: нет
+        // Пост: возвращена пустая очередь с теми же начальной емкостью, сжатием и порогом параллельности
+        ArrayQueue<T> result = new ArrayQueue<>(initialCapacity, autoShrink);
+        result.parallelThreshold = parallelThreshold;
+        return result;
     }
 
     @Override
-    protected List<T> elements() {
-        List<T> elements = new ArrayList<>();
+    public Iterator<T> iterator() {
+        // Пред: нет
+        // Пост: возвращен курсор по элементам от головы к хвосту без копирования массива;
+        //       структурное изменение очереди во время обхода приводит к ConcurrentModificationException
+        return new Iterator<>() {
+            private int index = 0;
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public T next() {
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
+                if (!hasNext()) throw new NoSuchElementException();
+                return elementAt(index++);
+            }
+        };
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        // Пред: operator != null, operator не возвращает null
+        // Пост: каждый элемент e заменен на operator(e) на месте за один проход по кольцу
+        // modCount меняется до прохода: если operator бросит исключение, часть элементов уже заменена,
+        // и открытые итераторы должны это заметить
+        modCount++;
+        int mask = queue.length - 1;
         for (int i = 0; i < size; i++) {
-            elements.add(queue[(head + i) % queue.length]);
+            int index = (head + i) & mask;
+            T value = operator.apply(queue[index]);
+            if (value == null) {
+                throw new IllegalArgumentException("Error because value == null");
+            }
+            queue[index] = value;
         }
-        return elements;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        // Пред: filter != null
+        // Пост: элементы, удовлетворяющие filter, удалены одним проходом уплотнения кольца,
+        //       порядок остальных сохранен; возвращено true, если что-то удалено.
+        //       Если filter выбросил исключение, непроверенные элементы сохраняются
+        int mask = queue.length - 1;
+        int before = size;
+        int kept = 0;
+        int i = 0;
+        try {
+            for (; i < size; i++) {
+                T element = queue[(head + i) & mask];
+                if (!filter.test(element)) {
+                    queue[(head + kept++) & mask] = element;
+                }
+            }
+        } finally {
+            for (; i < size; i++) {
+                queue[(head + kept++) & mask] = queue[(head + i) & mask];
+            }
+            RingBuffers.clear(queue, (head + kept) & mask, size - kept);
+            tail = (head + kept) & mask;
+            size = kept;
+            modCount++;
+        }
+        shrinkIfSparse();
+        return size != before;
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        // Пред: action != null
+        // Пост: action применен к каждому элементу от головы к хвосту
+        int expectedModCount = modCount;
+        int mask = queue.length - 1;
+        for (int i = 0; i < size && modCount == expectedModCount; i++) {
+            action.accept(queue[(head + i) & mask]);
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    protected T elementAt(int index) {
+        return queue[slot(index)];
+    }
+
+    private int slot(int index) {
+        // Пред: 0 <= index < size (отсчет с головы)
+        // Пост: возвращен индекс ячейки массива, где лежит элемент
+        return (head + index) & (queue.length - 1);
     }
 
     @Override
@@ -148,9 +509,17 @@ public class ArrayQueue<T> extends AbstractQueue<T> {
     @SuppressWarnings("unchecked")
     public void clear() {
         // Пред: нет
-        // Пост: очередь очищена, размер сброшен до начального
-        queue = (T[]) new Object[1];
+        // Пост: очередь очищена; массив переиспользуется, а при автоматическом сжатии
+        //       возвращается к начальной емкости
+        if (autoShrink && queue.length > initialCapacity) {
+            int oldCapacity = queue.length;
+            queue = (T[]) new Object[initialCapacity];
+            fireResize(oldCapacity, 0);
+        } else {
+            RingBuffers.clear(queue, head, size);
+        }
         head = tail = size = 0;
+        modCount++;
     }
 
     @Override
@@ -160,8 +529,7 @@ public class ArrayQueue<T> extends AbstractQueue<T> {
         if (index < 0 || index >= size) {
             throw new IndexOutOfBoundsException("Error: incorrect index value. Beyond the required range (index < 0 || index >= size)");
         }
-        int current = (tail - 1 - index + queue.length) % queue.length;
-        return queue[current];
+        return elementAt(size - 1 - index);
     }
 
     public void set(int index, T value) {
@@ -175,7 +543,6 @@ public class ArrayQueue<T> extends AbstractQueue<T> {
         if (index < 0 || index >= size) {
             throw new IndexOutOfBoundsException("Error: incorrect index value. Beyond the required range (index < 0 || index >= size)");
         }
-        int current = (tail - 1 - index + queue.length) % queue.length;
-        queue[current] = value;
+        queue[slot(size - 1 - index)] = value;
     }
 }
\ No newline at end of file
@@ -1,40 +1,129 @@
 package queue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 public class ArrayQueueADT<T> {
     private T[] array;
     private int head;
     private int tail;
     private int size;
+    private final int initialCapacity;
+    private final boolean autoShrink;
+    private final int limit;
+    private final OverflowPolicy policy;
+    private long dropped;
+    private long rejected;
 
     // Модель: очередь, представляющая собой последовательность элементов, упорядоченных по принципу FIFO    // инвариант: array != null, 0 <= head, tail < array.length, size >= 0
     // Предусловия: enqueue/push - элемент не null; element/peek/dequeue/remove - очередь не пуста
     // инвариант:
-    //   - array != null
+    //   - array != null, array.length - степень двойки
     //   - 0 <= head, tail < array.length
     //   - size == количество элементов в очереди
     //   - все элементы очереди != null 
 
-    @SuppressWarnings("unchecked")
     public ArrayQueueADT() {
         // Пред: нет
-        // Пост: создана пустая очередь с начальной емкостью 1
-        array = (T[]) new Object[1];
+        // Пост: создана пустая очередь с начальной емкостью DEFAULT_CAPACITY
+        this(RingBuffers.DEFAULT_CAPACITY);
+    }
+
+    public ArrayQueueADT(int initialCapacity) {
+        // Пред: initialCapacity >= 0
+        // Пост: создана пустая очередь с емкостью не меньше initialCapacity, без автоматического сжатия
+        this(initialCapacity, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ArrayQueueADT(int initialCapacity, boolean autoShrink) {
+        // Пред: initialCapacity >= 0
+        // Пост: создана пустая очередь с емкостью не меньше initialCapacity;
+        //       если autoShrink, емкость уменьшается вдвое, когда очередь заполнена не более чем на четверть
+        this.initialCapacity = RingBuffers.capacityFor(initialCapacity);
+        this.autoShrink = autoShrink;
+        this.limit = Integer.MAX_VALUE;
+        this.policy = null;
+        array = (T[]) new Object[this.initialCapacity];
+        head = tail = size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public ArrayQueueADT(int capacity, OverflowPolicy policy) {
+        // Пред: capacity > 0, policy != null, policy != BLOCK
+        // Пост: создана пустая ограниченная очередь емкостью ровно capacity; массив выделяется один раз
+        //       и не растет и не сжимается, при переполнении enqueue/push поступают согласно policy
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Error: capacity <= 0");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Error because policy == null");
+        }
+        if (policy == OverflowPolicy.BLOCK) {
+            // Ждать освобождения места некому: очередь не потокобезопасна
+            throw new IllegalArgumentException("Error: BLOCK policy requires a thread-safe queue, use BoundedArrayQueue");
+        }
+        this.initialCapacity = RingBuffers.capacityFor(capacity);
+        this.autoShrink = false;
+        this.limit = capacity;
+        this.policy = policy;
+        array = (T[]) new Object[this.initialCapacity];
         head = tail = size = 0;
     }
 
+    private static <T> boolean makeRoom(ArrayQueueADT<T> queue) {
+        // Пред: нет
+        // Пост: возвращено true, если в очереди есть место (возможно, после вытеснения головы по DROP_OLDEST);
+        //       false, если элемент отброшен по DROP_NEWEST; при REJECT бросается IllegalStateException
+        if (queue.size < queue.limit) {
+            return true;
+        }
+        switch (queue.policy) {
+            case DROP_OLDEST:
+                dequeue(queue);
+                queue.dropped++;
+                return true;
+            case DROP_NEWEST:
+                queue.dropped++;
+                return false;
+            default:
+                queue.rejected++;
+                throw new IllegalStateException("Queue is full");
+        }
+    }
+
+    public static <T> long droppedCount(ArrayQueueADT<T> queue) {
+        // Пред: нет
+        // Пост: возвращено число элементов, потерянных по DROP_OLDEST или DROP_NEWEST
+        return queue.dropped;
+    }
+
+    public static <T> long rejectedCount(ArrayQueueADT<T> queue) {
+        // Пред: нет
+        // Пост: возвращено число элементов, не принятых по REJECT
+        return queue.rejected;
+    }
+
     public static <T> void enqueue(ArrayQueueADT<T> queue, T value) {
         // Пред: value != null
         // Пост: элемент добавлен в конец очереди, size увеличен на 1
+        //       (для ограниченной очереди - либо поступили по политике переполнения)
         if (value == null) {
             throw new IllegalArgumentException("Error because value == null");
         }
+        if (!makeRoom(queue)) {
+            return;
+        }
         if (queue.size == queue.array.length) {
             resize(queue);
         }
         queue.array[queue.tail] = value;
-        queue.tail = (queue.tail + 1) % queue.array.length;
+        queue.tail = (queue.tail + 1) & (queue.array.length - 1);
         queue.size++;
     }
 
@@ -42,28 +131,191 @@ public class ArrayQueueADT<T> {
     public static <T> void push(ArrayQueueADT<T> queue, T value) {
         // Пред: value != null
         // Пост: элемент добавлен в начало очереди, size увеличен на 1
+        //       (для ограниченной очереди - либо поступили по политике переполнения)
         if (value == null) {
             throw new IllegalArgumentException("Error because value == null");
         }
+        if (!makeRoom(queue)) {
+            return;
+        }
         if (queue.size == queue.array.length) {
             resize(queue);
         }
-        queue.head = (queue.head - 1 + queue.array.length) % queue.array.length;
+        queue.head = (queue.head - 1) & (queue.array.length - 1);
         queue.array[queue.head] = value;
         queue.size++;
     }
 
-    @SuppressWarnings("unchecked")
     private static <T> void resize(ArrayQueueADT<T> queue) {
         // Пред: массив заполнен (size == array.length)
         // Пост: емкость массива увеличена вдвое, порядок элементов сохранен
-        T[] newQueue = (T[]) new Object[queue.array.length * 2];
-        for (int i = 0; i < queue.size; i++) {
-            newQueue[i] = queue.array[(queue.head + i) % queue.array.length];
-        }
+        reallocate(queue, RingBuffers.grownCapacity(queue.array.length));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void reallocate(ArrayQueueADT<T> queue, int capacity) {
+        // Пред: capacity - степень двойки, capacity >= size
+        // Пост: элементы перенесены в начало нового массива емкости capacity, порядок сохранен
+        T[] newQueue = (T[]) new Object[capacity];
+        RingBuffers.unwrap(queue.array, queue.array.length, queue.head, queue.size, newQueue);
         queue.array = newQueue;
         queue.head = 0;
-        queue.tail = queue.size;
+        queue.tail = queue.size & (capacity - 1);
+    }
+
+    private static <T> void shrinkIfSparse(ArrayQueueADT<T> queue) {
+        // Пред: нет
+        // Пост: если включено автоматическое сжатие и очередь разрежена, емкость уменьшена вдвое
+        if (queue.autoShrink) {
+            int capacity = RingBuffers.shrunkCapacity(queue.array.length, queue.size, queue.initialCapacity);
+            if (capacity < queue.array.length) {
+                reallocate(queue, capacity);
+            }
+        }
+    }
+
+    public static <T> void ensureCapacity(ArrayQueueADT<T> queue, int capacity) {
+        // Пред: capacity >= 0
+        // Пост: емкость массива не меньше min(capacity, предел ограниченной очереди), порядок элементов сохранен
+        if (Math.min(capacity, queue.limit) > queue.array.length) {
+            reallocate(queue, RingBuffers.capacityFor(capacity));
+        }
+    }
+
+    public static <T> void trimToSize(ArrayQueueADT<T> queue) {
+        // Пред: нет
+        // Пост: емкость массива уменьшена до минимальной степени двойки, вмещающей size элементов;
+        //       массив ограниченной очереди не изменяется
+        if (queue.policy != null) {
+            return;
+        }
+        int capacity = RingBuffers.capacityFor(queue.size);
+        if (capacity < queue.array.length) {
+            reallocate(queue, capacity);
+        }
+    }
+
+    public static <T> int capacity(ArrayQueueADT<T> queue) {
+        // Пред: нет
+        // Пост: возвращена текущая емкость массива (для ограниченной очереди - ее предел)
+        return Math.min(queue.array.length, queue.limit);
+    }
+
+    public static <T> void enqueueAll(ArrayQueueADT<T> queue, T[] values) {
+        // Пред: values != null, все элементы values != null
+        // Пост: элементы добавлены в конец очереди в порядке массива не более чем двумя копированиями,
+        //       size увеличен на values.length
+        for (T value : values) {
+            if (value == null) {
+                throw new IllegalArgumentException("Error because value == null");
+            }
+        }
+        if (queue.size + (long) values.length > queue.limit) {
+            // Переполнение обрабатывается поэлементно, чтобы политика применялась к каждому элементу
+            for (T value : values) {
+                enqueue(queue, value);
+            }
+            return;
+        }
+        ensureCapacity(queue, RingBuffers.requiredCapacity(queue.size, values.length));
+        RingBuffers.wrap(values, values.length, queue.array, queue.array.length, queue.tail);
+        queue.tail = (queue.tail + values.length) & (queue.array.length - 1);
+        queue.size += values.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> void enqueueAll(ArrayQueueADT<T> queue, Iterable<? extends T> values) {
+        // Пред: values != null, все элементы values != null
+        // Пост: элементы добавлены в конец очереди в порядке обхода; если среди них есть null,
+        //       бросается IllegalArgumentException и очередь не изменена
+        if (values instanceof Collection) {
+            enqueueAll(queue, (T[]) ((Collection<?>) values).toArray());
+        } else {
+            List<Object> copy = new ArrayList<>();
+            values.forEach(copy::add);
+            enqueueAll(queue, (T[]) copy.toArray());
+        }
+    }
+
+    public static <T> int drainTo(ArrayQueueADT<T> queue, Collection<? super T> target, int maxElements) {
+        // Пред: target != null, maxElements >= 0
+        // Пост: min(maxElements, size) первых элементов удалены и добавлены в target в порядке очереди;
+        //       возвращено их количество
+        if (maxElements < 0) {
+            throw new IllegalArgumentException("maxElements < 0");
+        }
+        int count = Math.min(maxElements, queue.size);
+        int remaining = count;
+        while (remaining > 0) {
+            // инвариант: ровно count - remaining элементов добавлены в target и удалены из очереди,
+            //            поэтому исключение из target.addAll не дублирует уже перенесенные элементы
+            int chunk = Math.min(remaining, queue.array.length - queue.head);
+            target.addAll(Arrays.asList(queue.array).subList(queue.head, queue.head + chunk));
+            discardFirst(queue, chunk);
+            remaining -= chunk;
+        }
+        return count;
+    }
+
+    public static <T> int dequeueBatch(ArrayQueueADT<T> queue, T[] target) {
+        // Пред: target != null
+        // Пост: min(target.length, size) первых элементов удалены и записаны в начало target
+        //       не более чем двумя копированиями; возвращено их количество
+        int count = Math.min(target.length, queue.size);
+        RingBuffers.unwrap(queue.array, queue.array.length, queue.head, count, target);
+        discardFirst(queue, count);
+        return count;
+    }
+
+    private static <T> void discardFirst(ArrayQueueADT<T> queue, int count) {
+        // Пред: 0 <= count <= size
+        // Пост: первые count элементов удалены из очереди
+        RingBuffers.clear(queue.array, queue.head, count);
+        queue.head = (queue.head + count) & (queue.array.length - 1);
+        queue.size -= count;
+        shrinkIfSparse(queue);
+    }
+
+    public static <T> void replaceAll(ArrayQueueADT<T> queue, UnaryOperator<T> operator) {
+        // Пред: operator != null, operator не возвращает null
+        // Пост: каждый элемент e заменен на operator(e) на месте за один проход по кольцу
+        int mask = queue.array.length - 1;
+        for (int i = 0; i < queue.size; i++) {
+            int index = (queue.head + i) & mask;
+            T value = operator.apply(queue.array[index]);
+            if (value == null) {
+                throw new IllegalArgumentException("Error because value == null");
+            }
+            queue.array[index] = value;
+        }
+    }
+
+    public static <T> boolean removeIf(ArrayQueueADT<T> queue, Predicate<? super T> filter) {
+        // Пред: filter != null
+        // Пост: элементы, удовлетворяющие filter, удалены одним проходом уплотнения кольца,
+        //       порядок остальных сохранен; возвращено true, если что-то удалено.
+        //       Если filter выбросил исключение, непроверенные элементы сохраняются
+        int mask = queue.array.length - 1;
+        int before = queue.size;
+        int kept = 0;
+        int i = 0;
+        try {
+            for (; i < queue.size; i++) {
+                T element = queue.array[(queue.head + i) & mask];
+                if (!filter.test(element)) {
+                    queue.array[(queue.head + kept++) & mask] = element;
+                }
+            }
+        } finally {
+            for (; i < queue.size; i++) {
+                queue.array[(queue.head + kept++) & mask] = queue.array[(queue.head + i) & mask];
+            }
+            RingBuffers.clear(queue.array, (queue.head + kept) & mask, queue.size - kept);
+            queue.tail = (queue.head + kept) & mask;
+            queue.size = kept;
+        }
+        shrinkIfSparse(queue);
+        return queue.size != before;
     }
 
     public static <T> T element(ArrayQueueADT<T> queue) {
@@ -81,7 +333,7 @@ public class ArrayQueueADT<T> {
         if (isEmpty(queue)) {
             throw new NoSuchElementException("Queue is empty!");
         }
-        return queue.array[(queue.tail - 1 + queue.array.length) % queue.array.length];
+        return queue.array[(queue.tail - 1) & (queue.array.length - 1)];
     }
 
     public static <T> T dequeue(ArrayQueueADT<T> queue) {
@@ -89,8 +341,9 @@ public class ArrayQueueADT<T> {
         // Пост: первый элемент удален и возвращен, size уменьшен на 1
         T value = element(queue);
         queue.array[queue.head] = null;
-        queue.head = (queue.head + 1) % queue.array.length;
+        queue.head = (queue.head + 1) & (queue.array.length - 1);
         queue.size--;
+        shrinkIfSparse(queue);
         return value;
     }
 
@@ -98,9 +351,10 @@ public class ArrayQueueADT<T> {
         // Пред: очередь не пуста (size > 0)
         // Пост: последний элемент удален и возвращен, size уменьшен на 1
         T value = peek(queue);
-        queue.tail = (queue.tail - 1 + queue.array.length) % queue.array.length;
+        queue.tail = (queue.tail - 1) & (queue.array.length - 1);
         queue.array[queue.tail] = null;
         queue.size--;
+        shrinkIfSparse(queue);
         return value;
     }
 
@@ -119,8 +373,13 @@ public class ArrayQueueADT<T> {
     @SuppressWarnings("unchecked")
     public static <T> void clear(ArrayQueueADT<T> queue) {
         // Пред: нет
-        // Пост: очередь очищена, размер сброшен до начального
-        queue.array = (T[]) new Object[1];
+        // Пост: очередь очищена; массив переиспользуется, а при автоматическом сжатии
+        //       возвращается к начальной емкости
+        if (queue.autoShrink && queue.array.length > queue.initialCapacity) {
+            queue.array = (T[]) new Object[queue.initialCapacity];
+        } else {
+            RingBuffers.clear(queue.array, queue.head, queue.size);
+        }
         queue.head = queue.tail = queue.size = 0;
     }
 
@@ -130,7 +389,7 @@ public class ArrayQueueADT<T> {
         if (index < 0 || index >= queue.size) {
             throw new IndexOutOfBoundsException("Error: incorrect index value. Beyond the required range (index < 0 || index >= size)");
         }
-        int current = (queue.tail - 1 - index + queue.array.length) % queue.array.length;
+        int current = (queue.tail - 1 - index) & (queue.array.length - 1);
         return queue.array[current];
     }
 
@@ -145,7 +404,7 @@ public class ArrayQueueADT<T> {
         if (index < 0 || index >= queue.size) {
             throw new IndexOutOfBoundsException("Error: incorrect index value. Beyond the required range (index < 0 || index >= size)");
         }
-        int current = (queue.tail - 1 - index + queue.array.length) % queue.array.length;
+        int current = (queue.tail - 1 - index) & (queue.array.length - 1);
         queue.array[current] = value;
     }
 }
\ No newline at end of file
@@ -1,136 +1,381 @@
 package queue;
 
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
 
+// Очередь в виде модуля. Статические методы работают с общей очередью по умолчанию, а named(name)
+// возвращает независимую именованную очередь с тем же набором операций.
+// Каждая очередь защищена своей блокировкой, поэтому потоки, работающие с разными очередями,
+// не конкурируют друг с другом; реестр имен построен на ConcurrentHashMap и не блокирует чтение.
+// Все статические методы работают с одной очередью DEFAULT и поэтому сериализуются на ее блокировке.
+// Разделение на блокировки головы и хвоста (как в очереди с двумя блокировками) здесь не подходит:
+// push и remove работают с противоположными концами, get/set - с серединой, а перевыделение кольца
+// затрагивает оба конца сразу. Потокам, которым нужна параллельность, следует брать свои named(name).
 public class ArrayQueueModule {
-    private static Object[] array = new Object[10];
-    private static int head = 0;
-    private static int tail = 0;
-    private static int size = 0;
+    private static final ConcurrentMap<String, Instance> REGISTRY = new ConcurrentHashMap<>();
+    private static final Instance DEFAULT = new Instance();
 
-    // Модель: очередь, представляющая собой последовательность элементов, упорядоченных по принципу FIFO
-    // инвариант: 0 <= head, tail < array.length, size >= 0, элементы != null
-    // Предусловия: enqueue/push - элемент не null; element/peek/dequeue/remove - очередь не пуста
+    public static Instance named(String name) {
+        // Пред: name != null
+        // Пост: возвращена очередь с именем name; при первом обращении к имени она создается пустой
+        if (name == null) {
+            throw new IllegalArgumentException("Error because name == null");
+        }
+        return REGISTRY.computeIfAbsent(name, key -> new Instance());
+    }
+
+    public static boolean release(String name) {
+        // Пред: name != null
+        // Пост: очередь с именем name удалена из реестра; возвращено true, если она была зарегистрирована.
+        //       Ссылки на нее, полученные ранее, остаются рабочими
+        return REGISTRY.remove(name) != null;
+    }
 
     public static void enqueue(Object value) {
-        // Пред: value != null
-        // Пост: элемент добавлен в конец очереди, size увеличен на 1
-        if (value == null) {
-            throw new IllegalArgumentException("Error because value == null");
-        }
-        if (size == array.length) {
-            resize();
-        }
-        array[tail] = value;
-        tail = (tail + 1) % array.length;
-        size++;
+        DEFAULT.enqueue(value);
     }
 
     public static void push(Object value) {
-        // Пред: value != null
-        // Пост: элемент добавлен в начало очереди, size увеличен на 1
-        if (value == null) {
-            throw new IllegalArgumentException("Error because value == null");
-        }
-        if (size == array.length) {
-            resize();
-        }
-        head = (head - 1 + array.length) % array.length;
-        array[head] = value;
-        size++;
+        DEFAULT.push(value);
     }
 
-    private static void resize() {
-        // Пред: массив заполнен (size == array.length)
-        // Пост: емкость массива увеличена вдвое, порядок элементов сохранен
-        Object[] newQueue = new Object[array.length * 2];
-        for (int i = 0; i < size; i++) {
-            newQueue[i] = array[(head + i) % array.length];
-        }
-        array = newQueue;
-        head = 0;
-        tail = size;
+    public static void setAutoShrink(boolean enabled) {
+        DEFAULT.setAutoShrink(enabled);
+    }
+
+    public static void ensureCapacity(int capacity) {
+        DEFAULT.ensureCapacity(capacity);
+    }
+
+    public static void trimToSize() {
+        DEFAULT.trimToSize();
+    }
+
+    public static int capacity() {
+        return DEFAULT.capacity();
     }
 
     public static Object element() {
-        // Пред: очередь не пуста (size > 0)
-        // Пост: возвращен первый элемент без изменения очереди
-        if (isEmpty()) {
-            throw new NoSuchElementException("Queue is empty!");
-        }
-        return array[head];
+        return DEFAULT.element();
     }
 
     public static Object peek() {
-        // Пред: очередь не пуста (size > 0)
-        // Пост: возвращен последний элемент без изменения очереди
-        if (isEmpty()) {
-            throw new NoSuchElementException("Queue is empty!");
-        }
-        return array[(tail - 1 + array.length) % array.length];
+        return DEFAULT.peek();
     }
 
     public static Object dequeue() {
-        // Пред: очередь не пуста (size > 0)
-        // Пост: первый элемент удален и возвращен, size уменьшен на 1
-        Object value = element();
-        array[head] = null;
-        head = (head + 1) % array.length;
-        size--;
-        return value;
+        return DEFAULT.dequeue();
+    }
+
+    public static Object poll() {
+        return DEFAULT.poll();
     }
 
     public static Object remove() {
-        // Пред: очередь не пуста (size > 0)
-        // Пост: последний элемент удален и возвращен, size уменьшен на 1
-        Object value = peek();
-        tail = (tail - 1 + array.length) % array.length;
-        array[tail] = null;
-        size--;
-        return value;
+        return DEFAULT.remove();
     }
 
     public static int size() {
-        // Пред: нет
-        // Пост: возвращен текущий размер очереди
-        return size;
+        return DEFAULT.size();
     }
 
     public static boolean isEmpty() {
-        // Пред: нет
-        // Пост: возвращено true, если очередь пуста, иначе false
-        return size == 0;
+        return DEFAULT.isEmpty();
     }
 
     public static void clear() {
-        // Пред: нет
-        // Пост: очередь очищена, размер сброшен до начального
-        array = new Object[1];
-        head = tail = size = 0;
+        DEFAULT.clear();
     }
 
     public static Object get(int index) {
-        // Пред: 0 <= index < size
-        // Пост: возвращен элемент по индексу (отсчет с хвоста)
-        if (index < 0 || index >= size) {
-            throw new IndexOutOfBoundsException("Error: incorrect index value. Beyond the required range (index < 0 || index >= size)");
-        }
-        int current = (tail - 1 - index + array.length) % array.length;
-        return array[current];
+        return DEFAULT.get(index);
     }
 
     public static void set(int index, Object value) {
-        // Пред:
-        //   - value != null
-        //   - 0 <= index < size
-        // Пост: элемент по индексу (отсчет с хвоста) заменен на value
-        if (value == null) {
-            throw new IllegalArgumentException("Error because value == null");
+        DEFAULT.set(index, value);
+    }
+
+    // Одна очередь модуля. Каждая операция атомарна относительно собственной блокировки очереди;
+    // пара isEmpty + dequeue из разных потоков - нет, для извлечения без исключения есть poll.
+    public static final class Instance {
+        private final ReentrantLock lock = new ReentrantLock();
+        private Object[] array = new Object[RingBuffers.DEFAULT_CAPACITY];
+        private int head = 0;
+        private int tail = 0;
+        private int size = 0;
+        private boolean autoShrink = false;
+
+        // Модель: очередь, представляющая собой последовательность элементов, упорядоченных по принципу FIFO
+        // инвариант: array.length - степень двойки, 0 <= head, tail < array.length, size >= 0, элементы != null
+        // Предусловия: enqueue/push - элемент не null; element/peek/dequeue/remove - очередь не пуста
+
+        private Instance() {
+        }
+
+        public void enqueue(Object value) {
+            // Пред: value != null
+            // Пост: элемент добавлен в конец очереди, size увеличен на 1
+            if (value == null) {
+                throw new IllegalArgumentException("Error because value == null");
+            }
+            lock.lock();
+            try {
+                if (size == array.length) {
+                    resize();
+                }
+                array[tail] = value;
+                tail = (tail + 1) & (array.length - 1);
+                size++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void push(Object value) {
+            // Пред: value != null
+            // Пост: элемент добавлен в начало очереди, size увеличен на 1
+            if (value == null) {
+                throw new IllegalArgumentException("Error because value == null");
+            }
+            lock.lock();
+            try {
+                if (size == array.length) {
+                    resize();
+                }
+                head = (head - 1) & (array.length - 1);
+                array[head] = value;
+                size++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void resize() {
+            // Пред: массив заполнен (size == array.length), блокировка захвачена
+            // Пост: емкость массива увеличена вдвое, порядок элементов сохранен
+            reallocate(RingBuffers.grownCapacity(array.length));
+        }
+
+        private void reallocate(int capacity) {
+            // Пред: capacity - степень двойки, capacity >= size, блокировка захвачена
+            // Пост: элементы перенесены в начало нового массива емкости capacity, порядок сохранен
+            Object[] newQueue = new Object[capacity];
+            RingBuffers.unwrap(array, array.length, head, size, newQueue);
+            array = newQueue;
+            head = 0;
+            tail = size & (capacity - 1);
+        }
+
+        private void shrinkIfSparse() {
+            // Пред: блокировка захвачена
+            // Пост: если включено автоматическое сжатие и очередь разрежена, емкость уменьшена вдвое
+            if (autoShrink) {
+                int capacity = RingBuffers.shrunkCapacity(array.length, size, RingBuffers.DEFAULT_CAPACITY);
+                if (capacity < array.length) {
+                    reallocate(capacity);
+                }
+            }
         }
-        if (index < 0 || index >= size) {
-            throw new IndexOutOfBoundsException("Error: incorrect index value. Beyond the required range (index < 0 || index >= size)");
+
+        public void setAutoShrink(boolean enabled) {
+            // Пред: нет
+            // Пост: если enabled, емкость уменьшается вдвое, когда очередь заполнена не более чем на четверть
+            lock.lock();
+            try {
+                autoShrink = enabled;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void ensureCapacity(int capacity) {
+            // Пред: capacity >= 0
+            // Пост: емкость массива не меньше capacity, порядок элементов сохранен
+            lock.lock();
+            try {
+                if (capacity > array.length) {
+                    reallocate(RingBuffers.capacityFor(capacity));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void trimToSize() {
+            // Пред: нет
+            // Пост: емкость массива уменьшена до минимальной степени двойки, вмещающей size элементов
+            lock.lock();
+            try {
+                int capacity = RingBuffers.capacityFor(size);
+                if (capacity < array.length) {
+                    reallocate(capacity);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int capacity() {
+            // Пред: нет
+            // Пост: возвращена текущая емкость массива
+            lock.lock();
+            try {
+                return array.length;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public Object element() {
+            // Пред: очередь не пуста (size > 0)
+            // Пост: возвращен первый элемент без изменения очереди
+            lock.lock();
+            try {
+                checkNotEmpty();
+                return array[head];
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public Object peek() {
+            // Пред: очередь не пуста (size > 0)
+            // Пост: возвращен последний элемент без изменения очереди
+            lock.lock();
+            try {
+                checkNotEmpty();
+                return array[(tail - 1) & (array.length - 1)];
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void checkNotEmpty() {
+            if (size == 0) {
+                throw new NoSuchElementException("Queue is empty!");
+            }
+        }
+
+        public Object dequeue() {
+            // Пред: очередь не пуста (size > 0)
+            // Пост: первый элемент удален и возвращен, size уменьшен на 1
+            lock.lock();
+            try {
+                checkNotEmpty();
+                return unlinkFirst();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public Object poll() {
+            // Пред: нет
+            // Пост: если очередь не пуста, первый элемент удален и возвращен, иначе возвращен null
+            lock.lock();
+            try {
+                return size == 0 ? null : unlinkFirst();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Object unlinkFirst() {
+            // Пред: size > 0, блокировка захвачена
+            // Пост: первый элемент удален и возвращен, size уменьшен на 1
+            Object value = array[head];
+            array[head] = null;
+            head = (head + 1) & (array.length - 1);
+            size--;
+            shrinkIfSparse();
+            return value;
+        }
+
+        public Object remove() {
+            // Пред: очередь не пуста (size > 0)
+            // Пост: последний элемент удален и возвращен, size уменьшен на 1
+            lock.lock();
+            try {
+                checkNotEmpty();
+                tail = (tail - 1) & (array.length - 1);
+                Object value = array[tail];
+                array[tail] = null;
+                size--;
+                shrinkIfSparse();
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int size() {
+            // Пред: нет
+            // Пост: возвращен текущий размер очереди
+            lock.lock();
+            try {
+                return size;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean isEmpty() {
+            // Пред: нет
+            // Пост: возвращено true, если очередь пуста, иначе false
+            return size() == 0;
+        }
+
+        public void clear() {
+            // Пред: нет
+            // Пост: очередь очищена; массив переиспользуется, а при автоматическом сжатии
+            //       возвращается к начальной емкости
+            lock.lock();
+            try {
+                if (autoShrink && array.length > RingBuffers.DEFAULT_CAPACITY) {
+                    array = new Object[RingBuffers.DEFAULT_CAPACITY];
+                } else {
+                    RingBuffers.clear(array, head, size);
+                }
+                head = tail = size = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public Object get(int index) {
+            // Пред: 0 <= index < size
+            // Пост: возвращен элемент по индексу (отсчет с хвоста)
+            lock.lock();
+            try {
+                checkIndex(index);
+                return array[(tail - 1 - index) & (array.length - 1)];
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void set(int index, Object value) {
+            // Пред:
+            //   - value != null
+            //   - 0 <= index < size
+            // Пост: элемент по индексу (отсчет с хвоста) заменен на value
+            if (value == null) {
+                throw new IllegalArgumentException("Error because value == null");
+            }
+            lock.lock();
+            try {
+                checkIndex(index);
+                array[(tail - 1 - index) & (array.length - 1)] = value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void checkIndex(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Error: incorrect index value. Beyond the required range (index < 0 || index >= size)");
+            }
         }
-        int current = (tail - 1 - index + array.length) % array.length;
-        array[current] = value;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,376 @@
+package queue;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+// Потокобезопасная обертка над любой Queue с блокирующими take/put и ожиданием с таймаутом.
+// Ожидание построено на ReentrantLock и Condition (LockSupport.park), а не на synchronized/wait,
+// поэтому виртуальный поток, ожидающий элемент, должен отпускать поток-носитель. Это не проверено:
+// сборка нацелена на Java 17, где виртуальных потоков нет, и тесты ждут только на платформенных потоках.
+// Емкость адаптера не больше емкости обернутой ограниченной очереди (SpscArrayQueue, ConcurrentArrayQueue,
+// BoundedArrayQueue), чтобы put ждал места, а не получал отказ от самой очереди.
+// Все операции обернутой очереди выполняются под одной блокировкой; обходить обернутую очередь
+// напрямую после создания адаптера нельзя.
+public class BlockingQueueAdapter<T> implements Queue<T> {
+    private final Queue<T> queue;
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    // инвариант: queue.size() <= capacity
+
+    public BlockingQueueAdapter(Queue<T> queue) {
+        // Пред: queue != null
+        // Пост: создан блокирующий адаптер над queue с емкостью обернутой очереди
+        //       (неограниченный, если она не ограничена)
+        this(queue, boundOf(queue));
+    }
+
+    public BlockingQueueAdapter(Queue<T> queue, int capacity) {
+        // Пред: queue != null, 0 < capacity <= емкости обернутой ограниченной очереди, queue.size() <= capacity
+        // Пост: создан блокирующий адаптер над queue, в котором не более capacity элементов
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Error: capacity <= 0");
+        }
+        if (capacity > boundOf(queue)) {
+            throw new IllegalArgumentException("Error: capacity exceeds the capacity of the wrapped queue");
+        }
+        if (queue.size() > capacity) {
+            throw new IllegalArgumentException("Error: queue.size() > capacity");
+        }
+        this.queue = queue;
+        this.capacity = capacity;
+    }
+
+    private static int boundOf(Queue<?> queue) {
+        // Пред: queue != null
+        // Пост: возвращена емкость ограниченной очереди или Integer.MAX_VALUE для растущей
+        if (queue instanceof SpscArrayQueue) {
+            return ((SpscArrayQueue<?>) queue).capacity();
+        } else if (queue instanceof ConcurrentArrayQueue) {
+            return ((ConcurrentArrayQueue<?>) queue).capacity();
+        } else if (queue instanceof BoundedArrayQueue) {
+            return ((BoundedArrayQueue<?>) queue).capacity();
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    public void put(T value) throws InterruptedException {
+        // Пред: value != null
+        // Пост: элемент добавлен в конец очереди; поток ждет, пока освободится место
+        if (value == null) {
+            throw new IllegalArgumentException("Error because value == null");
+        }
+        lock.lockInterruptibly();
+        try {
+            while (queue.size() == capacity) {
+                notFull.await();
+            }
+            queue.enqueue(value);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean offer(T value, long timeout, TimeUnit unit) throws InterruptedException {
+        // Пред: value != null
+        // Пост: элемент добавлен в конец очереди и возвращено true, либо место не освободилось
+        //       за timeout и возвращено false
+        if (value == null) {
+            throw new IllegalArgumentException("Error because value == null");
+        }
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (queue.size() == capacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            queue.enqueue(value);
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public T take() throws InterruptedException {
+        // Пред: нет
+        // Пост: первый элемент удален и возвращен; поток ждет, пока очередь не станет непустой
+        lock.lockInterruptibly();
+        try {
+            while (queue.isEmpty()) {
+                notEmpty.await();
+            }
+            T value = queue.dequeue();
+            notFull.signal();
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        // Пред: нет
+        // Пост: первый элемент удален и возвращен, либо очередь оставалась пустой timeout и возвращен null
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (queue.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            T value = queue.dequeue();
+            notFull.signal();
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public void enqueue(T element) {
+        // Пред: element != null, очередь не заполнена
+        // Пост: элемент добавлен в конец очереди
+        lock.lock();
+        try {
+            checkNotFull(1);
+            queue.enqueue(element);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void push(T element) {
+        // Пред: element != null, очередь не заполнена
+        // Пост: элемент добавлен в начало очереди
+        lock.lock();
+        try {
+            checkNotFull(1);
+            queue.push(element);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void enqueueAll(T[] elements) {
+        lock.lock();
+        try {
+            checkNotFull(elements.length);
+            queue.enqueueAll(elements);
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void enqueueAll(Iterable<? extends T> elements) {
+        // Пред: elements != null, elements != this, все элементы elements != null
+        // Пост: как у enqueueAll(T[]) для копии elements
+        enqueueAll(AbstractQueue.snapshot(this, elements));
+    }
+
+    private void checkNotFull(int count) {
+        if (count > capacity - queue.size()) {
+            throw new IllegalStateException("Queue is full");
+        }
+    }
+
+    @Override
+    public T dequeue() {
+        lock.lock();
+        try {
+            T value = queue.dequeue();
+            notFull.signal();
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T remove() {
+        lock.lock();
+        try {
+            T value = queue.remove();
+            notFull.signal();
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> target, int maxElements) {
+        lock.lock();
+        try {
+            int count = queue.drainTo(target, maxElements);
+            if (count > 0) {
+                notFull.signalAll();
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int dequeueBatch(T[] target) {
+        lock.lock();
+        try {
+            int count = queue.dequeueBatch(target);
+            if (count > 0) {
+                notFull.signalAll();
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        lock.lock();
+        try {
+            queue.replaceAll(operator);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        lock.lock();
+        try {
+            boolean removed = queue.removeIf(filter);
+            if (removed) {
+                notFull.signalAll();
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            queue.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T element() {
+        lock.lock();
+        try {
+            return queue.element();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T peek() {
+        lock.lock();
+        try {
+            return queue.peek();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T get(int index) {
+        lock.lock();
+        try {
+            return queue.get(index);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void set(int index, T value) {
+        lock.lock();
+        try {
+            queue.set(index, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Queue<T> map(Function<? super T, T> foo) {
+        lock.lock();
+        try {
+            return new BlockingQueueAdapter<>(queue.map(foo), capacity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Queue<T> filter(Predicate<? super T> predicate) {
+        lock.lock();
+        try {
+            return new BlockingQueueAdapter<>(queue.filter(predicate), capacity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        // Пред: нет
+        // Пост: возвращен курсор по снимку очереди, сделанному под блокировкой
+        ArrayQueue<T> snapshot;
+        lock.lock();
+        try {
+            snapshot = new ArrayQueue<>(queue.size());
+            snapshot.enqueueAll(queue);
+        } finally {
+            lock.unlock();
+        }
+        return snapshot.iterator();
+    }
+}
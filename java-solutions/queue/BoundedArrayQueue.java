@@ -0,0 +1,448 @@
+package queue;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+// Очередь фиксированной емкости на кольцевом буфере, который выделяется один раз и никогда не растет.
+// При переполнении поступает согласно OverflowPolicy и ведет счетчики отброшенных и отклоненных элементов.
+// Все операции выполняются под одной блокировкой (политика BLOCK ждет на Condition), поэтому очередь
+// потокобезопасна; get/set считают индекс с хвоста, как ArrayQueue.
+public class BoundedArrayQueue<T> extends AbstractQueue<T> {
+    private final Object[] array;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final long timeoutNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private int head;
+    private int tail;
+    private int size;
+    private long dropped;
+    private long rejected;
+
+    // модель: очередь, представляющая собой последовательность элементов, упорядоченных по принципу FIFO
+    // инвариант:
+    //   - array.length - степень двойки, array.length >= capacity > 0
+    //   - 0 <= head, tail < array.length, 0 <= size <= capacity
+    //   - элементы не равны null
+
+    public BoundedArrayQueue(int capacity, OverflowPolicy policy) {
+        // Пред: capacity > 0, policy != null, policy != BLOCK
+        // Пост: создана пустая очередь емкостью ровно capacity
+        this(capacity, policy, 0, TimeUnit.NANOSECONDS);
+        if (policy == OverflowPolicy.BLOCK) {
+            throw new IllegalArgumentException("Error: BLOCK policy requires a timeout");
+        }
+    }
+
+    public BoundedArrayQueue(int capacity, OverflowPolicy policy, long timeout, TimeUnit unit) {
+        // Пред: capacity > 0, policy != null, timeout >= 0
+        // Пост: создана пустая очередь емкостью ровно capacity; при политике BLOCK добавление ждет
+        //       освобождения места не дольше timeout
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Error: capacity <= 0");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Error because policy == null");
+        }
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Error: timeout < 0");
+        }
+        this.array = new Object[RingBuffers.capacityFor(capacity)];
+        this.capacity = capacity;
+        this.policy = policy;
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public OverflowPolicy policy() {
+        return policy;
+    }
+
+    public long droppedCount() {
+        // Пред: нет
+        // Пост: возвращено число элементов, потерянных по DROP_OLDEST или DROP_NEWEST
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long rejectedCount() {
+        // Пред: нет
+        // Пост: возвращено число элементов, не принятых по REJECT или по истечении ожидания BLOCK
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean offer(T value) {
+        // Пред: value != null
+        // Пост: если место есть (или освободилось по политике), элемент добавлен в конец и возвращено true;
+        //       иначе элемент учтен как отброшенный или отклоненный и возвращено false.
+        //       Прерывание во время ожидания BLOCK: IllegalStateException, флаг прерывания установлен
+        if (value == null) {
+            throw new IllegalArgumentException("Error because value == null");
+        }
+        lock.lock();
+        try {
+            if (!makeRoom()) {
+                return false;
+            }
+            array[tail] = value;
+            tail = (tail + 1) & (array.length - 1);
+            size++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public T poll() {
+        // Пред: нет
+        // Пост: если очередь не пуста, первый элемент удален и возвращен, иначе возвращен null
+        lock.lock();
+        try {
+            return size == 0 ? null : unlinkFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean makeRoom() {
+        // Пред: блокировка захвачена
+        // Пост: возвращено true, если size < capacity (возможно, после вытеснения или ожидания);
+        //       иначе элемент учтен по политике и возвращено false.
+        //       Если ожидание BLOCK прервано, флаг прерывания восстановлен, элемент не учтен как отклоненный
+        //       и бросается IllegalStateException
+        if (size < capacity) {
+            return true;
+        }
+        switch (policy) {
+            case DROP_OLDEST:
+                unlinkFirst();
+                dropped++;
+                return true;
+            case DROP_NEWEST:
+                dropped++;
+                return false;
+            case BLOCK:
+                long nanos = timeoutNanos;
+                try {
+                    while (size == capacity && nanos > 0) {
+                        nanos = notFull.awaitNanos(nanos);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for space", e);
+                }
+                if (size < capacity) {
+                    return true;
+                }
+                rejected++;
+                return false;
+            default:
+                rejected++;
+                return false;
+        }
+    }
+
+    @Override
+    public void enqueue(T value) {
+        // Пред: value != null
+        // Пост: элемент добавлен в конец очереди, либо поступили по политике переполнения;
+        //       при REJECT и истечении ожидания BLOCK бросается IllegalStateException
+        if (!offer(value) && policy != OverflowPolicy.DROP_NEWEST) {
+            throw new IllegalStateException("Queue is full");
+        }
+    }
+
+    @Override
+    protected void enqueueFirst(T value) {
+        // Пред: value != null
+        // Пост: элемент добавлен в начало очереди, либо поступили по политике переполнения
+        //       (DROP_OLDEST вытесняет текущую голову)
+        lock.lock();
+        try {
+            if (!makeRoom()) {
+                if (policy != OverflowPolicy.DROP_NEWEST) {
+                    throw new IllegalStateException("Queue is full");
+                }
+                return;
+            }
+            head = (head - 1) & (array.length - 1);
+            array[head] = value;
+            size++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void enqueueAll(T[] elements) {
+        checkNotNull(elements);
+        lock.lock();
+        try {
+            super.enqueueAll(elements);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void enqueueAll(Iterable<? extends T> elements) {
+        lock.lock();
+        try {
+            super.enqueueAll(elements);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T unlinkFirst() {
+        // Пред: size > 0, блокировка захвачена
+        // Пост: первый элемент удален и возвращен, ожидающий добавления поток разбужен
+        T value = (T) array[head];
+        array[head] = null;
+        head = (head + 1) & (array.length - 1);
+        size--;
+        notFull.signal();
+        return value;
+    }
+
+    @Override
+    public T dequeue() {
+        // Пред: очередь не пуста (size > 0)
+        // Пост: первый элемент удален и возвращен, size уменьшен на 1
+        lock.lock();
+        try {
+            if (size == 0) {
+                throw new NoSuchElementException("Queue is empty!");
+            }
+            return unlinkFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected void dequeueLast() {
+        // Пред: size > 0, блокировка захвачена (вызывается из remove)
+        tail = (tail - 1) & (array.length - 1);
+        array[tail] = null;
+        size--;
+        notFull.signal();
+    }
+
+    @Override
+    public T remove() {
+        lock.lock();
+        try {
+            return super.remove();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T element() {
+        // Пред: очередь не пуста (size > 0)
+        // Пост: возвращен первый элемент без изменения очереди
+        lock.lock();
+        try {
+            if (size == 0) {
+                throw new NoSuchElementException("Queue is empty!");
+            }
+            return (T) array[head];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T peek() {
+        lock.lock();
+        try {
+            return super.peek();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        // Пред: нет
+        // Пост: очередь очищена, массив переиспользуется, ожидающие добавления потоки разбужены
+        lock.lock();
+        try {
+            RingBuffers.clear(array, head, size);
+            head = tail = size = 0;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T get(int index) {
+        // Пред: 0 <= index < size
+        // Пост: возвращен элемент по индексу (отсчет с хвоста)
+        lock.lock();
+        try {
+            checkIndex(index);
+            return elementAt(size - 1 - index);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void set(int index, T value) {
+        // Пред: value != null, 0 <= index < size
+        // Пост: элемент по индексу (отсчет с хвоста) заменен на value
+        if (value == null) {
+            throw new IllegalArgumentException("Error because value == null");
+        }
+        lock.lock();
+        try {
+            checkIndex(index);
+            updateElement(size - 1 - index, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Error: incorrect index value. Beyond the required range (index < 0 || index >= size)");
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected T elementAt(int index) {
+        return (T) array[(head + index) & (array.length - 1)];
+    }
+
+    @Override
+    protected void updateElement(int index, T value) {
+        array[(head + index) & (array.length - 1)] = value;
+    }
+
+    @Override
+    protected AbstractQueue<T> createInstance() {
+        return new BoundedArrayQueue<>(capacity, policy, timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> target, int maxElements) {
+        lock.lock();
+        try {
+            return super.drainTo(target, maxElements);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int dequeueBatch(T[] target) {
+        lock.lock();
+        try {
+            return super.dequeueBatch(target);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        // Пред: operator != null, operator не возвращает null
+        // Пост: каждый элемент e заменен на operator(e) на месте
+        lock.lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                T value = operator.apply(elementAt(i));
+                if (value == null) {
+                    throw new IllegalArgumentException("Error because value == null");
+                }
+                updateElement(i, value);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        lock.lock();
+        try {
+            return super.removeIf(filter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Queue<T> map(Function<? super T, T> foo) {
+        lock.lock();
+        try {
+            return super.map(foo);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Queue<T> filter(Predicate<? super T> predicate) {
+        lock.lock();
+        try {
+            return super.filter(predicate);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        // Пред: нет
+        // Пост: возвращен курсор по снимку очереди, сделанному под блокировкой
+        ArrayQueue<T> snapshot;
+        lock.lock();
+        try {
+            snapshot = new ArrayQueue<>(size);
+            for (int i = 0; i < size; i++) {
+                snapshot.enqueue(elementAt(i));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return snapshot.iterator();
+    }
+}
@@ -0,0 +1,465 @@
+package queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+// head и tail разнесены по разным строкам кэша так же, как в SpscArrayQueue: CAS производителей
+// по tail не должен сбрасывать строку, которую читают потребители.
+abstract class ConcurrentPadding0 {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class ConcurrentTailField extends ConcurrentPadding0 {
+    volatile long tail;
+}
+
+abstract class ConcurrentPadding1 extends ConcurrentTailField {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+abstract class ConcurrentHeadField extends ConcurrentPadding1 {
+    volatile long head;
+}
+
+abstract class ConcurrentPadding2 extends ConcurrentHeadField {
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+}
+
+// Ограниченная неблокирующая очередь для многих производителей и многих потребителей.
+// Каждая ячейка кольца хранит номер последовательности: производитель может писать в ячейку позиции p,
+// когда sequence == p, потребитель может читать ее, когда sequence == p + 1. Позиции head и tail
+// захватываются через CAS, поэтому enqueue/dequeue не используют блокировок.
+//
+// Элемент в середине или в конце очереди удаляется CAS ячейки items с элемента на null: ячейка становится
+// "надгробием" и остается занятой, пока до нее не дойдет голова (poll пропускает надгробия). Потребитель
+// забирает элемент через getAndSet, поэтому элемент достается ровно одному из poll/remove/removeIf.
+// Надгробия занимают место в кольце: после remove очередь может оставаться заполненной для offer.
+//
+// enqueue/dequeue/offer/poll линеаризуемы. Остальные операции слабо согласованы: size, element, peek,
+// get, set, remove, replaceAll, removeIf, обход и map/filter отражают некоторое недавнее состояние
+// очереди и могут не учитывать операции, выполняемые параллельно. push (вставка перед head)
+// не поддерживается: позиции перед head уже могут быть заняты производителями следующего круга.
+public class ConcurrentArrayQueue<T> extends ConcurrentPadding2 implements Queue<T> {
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(ConcurrentHeadField.class, "head", long.class);
+            TAIL = lookup.findVarHandle(ConcurrentTailField.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final AtomicReferenceArray<T> items;
+    private final AtomicLongArray sequence;
+    private final int mask;
+    private final AtomicLong tombstones = new AtomicLong();
+
+    // инвариант:
+    //   - items.length() == sequence.length() == mask + 1 - степень двойки
+    //   - head <= tail <= head + capacity
+    //   - элементы очереди лежат в позициях [head, tail), позиция p хранится в ячейке p & mask
+    //   - ячейка опубликованной позиции p (sequence == p + 1) с items == null - надгробие;
+    //     tombstones - число надгробий в [head, tail) (кратковременно может расходиться)
+
+    public ConcurrentArrayQueue(int capacity) {
+        // Пред: capacity > 0
+        // Пост: создана пустая очередь емкостью не меньше capacity (округляется до степени двойки)
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Error: capacity <= 0");
+        }
+        int length = RingBuffers.capacityFor(capacity);
+        items = new AtomicReferenceArray<>(length);
+        sequence = new AtomicLongArray(length);
+        for (int i = 0; i < length; i++) {
+            sequence.set(i, i);
+        }
+        mask = length - 1;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public boolean offer(T value) {
+        // Пред: value != null
+        // Пост: если очередь не заполнена, элемент добавлен в конец и возвращено true, иначе false
+        if (value == null) {
+            throw new IllegalArgumentException("Error because value == null");
+        }
+        long position = tail;
+        while (true) {
+            int slot = (int) position & mask;
+            long difference = sequence.get(slot) - position;
+            if (difference == 0) {
+                if (TAIL.compareAndSet(this, position, position + 1)) {
+                    items.lazySet(slot, value);
+                    sequence.lazySet(slot, position + 1);
+                    return true;
+                }
+                position = tail;
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail;
+            }
+        }
+    }
+
+    public T poll() {
+        // Пред: нет
+        // Пост: если очередь не пуста, первый элемент удален и возвращен, иначе возвращен null
+        long position = head;
+        while (true) {
+            int slot = (int) position & mask;
+            long difference = sequence.get(slot) - (position + 1);
+            if (difference == 0) {
+                if (HEAD.compareAndSet(this, position, position + 1)) {
+                    T value = items.getAndSet(slot, null);
+                    sequence.lazySet(slot, position + mask + 1);
+                    if (value != null) {
+                        return value;
+                    }
+                    tombstones.decrementAndGet();
+                }
+                position = head;
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = head;
+            }
+        }
+    }
+
+    @Override
+    public void enqueue(T value) {
+        // Пред: value != null, очередь не заполнена
+        // Пост: элемент добавлен в конец очереди
+        if (!offer(value)) {
+            throw new IllegalStateException("Queue is full");
+        }
+    }
+
+    @Override
+    public T dequeue() {
+        // Пред: очередь не пуста
+        // Пост: первый элемент удален и возвращен
+        T value = poll();
+        if (value == null) {
+            throw new NoSuchElementException("Queue is empty!");
+        }
+        return value;
+    }
+
+    @Override
+    public T element() {
+        // Пред: очередь не пуста
+        // Пост: возвращен первый элемент (слабо согласованно, надгробия пропускаются)
+        long position = head;
+        while (true) {
+            int slot = (int) position & mask;
+            long difference = sequence.get(slot) - (position + 1);
+            if (difference < 0) {
+                throw new NoSuchElementException("Queue is empty!");
+            }
+            if (difference == 0) {
+                T value = items.get(slot);
+                if (value != null) {
+                    return value;
+                }
+                position++;
+            } else {
+                Thread.onSpinWait();
+                position = Math.max(position + 1, head);
+            }
+        }
+    }
+
+    @Override
+    public T peek() {
+        // Пред: очередь не пуста
+        // Пост: возвращен последний элемент (слабо согласованно)
+        while (true) {
+            long position = locateFromTail(0);
+            if (position < 0) {
+                throw new NoSuchElementException("Queue is empty!");
+            }
+            T value = items.get((int) position & mask);
+            if (value != null) {
+                return value;
+            }
+        }
+    }
+
+    @Override
+    public T get(int index) {
+        // Пред: 0 <= index < size
+        // Пост: возвращен элемент по индексу (отсчет с хвоста, слабо согласованно)
+        while (true) {
+            long position = index < 0 ? -1 : locateFromTail(index);
+            if (position < 0) {
+                throw new IndexOutOfBoundsException("Error: incorrect index value. Beyond the required range (index < 0 || index >= size)");
+            }
+            T value = items.get((int) position & mask);
+            if (value != null) {
+                return value;
+            }
+        }
+    }
+
+    private long locateFromTail(int index) {
+        // Пред: index >= 0
+        // Пост: возвращена позиция index-го с хвоста элемента (надгробия не считаются) или -1, если его нет
+        long position = tail - 1;
+        while (position >= head) {
+            int slot = (int) position & mask;
+            long current = sequence.get(slot);
+            if (current == position + 1) {
+                if (items.get(slot) != null && index-- == 0) {
+                    return position;
+                }
+                position--;
+            } else if (current == position) {
+                // позиция занята производителем, но элемент еще не опубликован
+                Thread.onSpinWait();
+            } else {
+                // позиция уже извлечена, значит извлечены и все позиции перед ней
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void set(int index, T value) {
+        // Пред: value != null, 0 <= index < size
+        // Пост: элемент по индексу (отсчет с хвоста) заменен на value через CAS ячейки;
+        //       если элемент успели извлечь, индекс ищется заново (слабо согласованно)
+        if (value == null) {
+            throw new IllegalArgumentException("Error because value == null");
+        }
+        while (true) {
+            long position = index < 0 ? -1 : locateFromTail(index);
+            if (position < 0) {
+                throw new IndexOutOfBoundsException("Error: incorrect index value. Beyond the required range (index < 0 || index >= size)");
+            }
+            int slot = (int) position & mask;
+            T current = items.get(slot);
+            if (current != null && items.compareAndSet(slot, current, value)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void push(T element) {
+        throw new UnsupportedOperationException("push is not supported by a lock-free FIFO queue");
+    }
+
+    @Override
+    public T remove() {
+        // Пред: очередь не пуста
+        // Пост: последний элемент заменен надгробием и возвращен (слабо согласованно)
+        while (true) {
+            long position = locateFromTail(0);
+            if (position < 0) {
+                throw new NoSuchElementException("Queue is empty!");
+            }
+            int slot = (int) position & mask;
+            T current = items.get(slot);
+            if (current != null && items.compareAndSet(slot, current, null)) {
+                tombstones.incrementAndGet();
+                return current;
+            }
+        }
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        // Пред: operator != null, operator не возвращает null
+        // Пост: каждый элемент, бывший в очереди на момент обхода, заменен через CAS на operator(e);
+        //       при гонке operator может быть вызван для элемента повторно
+        long end = tail;
+        for (long position = head; position < end; position++) {
+            int slot = (int) position & mask;
+            if (sequence.get(slot) != position + 1) {
+                continue;
+            }
+            T current;
+            while ((current = items.get(slot)) != null) {
+                T value = operator.apply(current);
+                if (value == null) {
+                    throw new IllegalArgumentException("Error because value == null");
+                }
+                if (sequence.get(slot) != position + 1 || items.compareAndSet(slot, current, value)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        // Пред: filter != null
+        // Пост: элементы, бывшие в очереди на момент обхода и удовлетворяющие filter, заменены надгробиями
+        boolean removed = false;
+        long end = tail;
+        for (long position = head; position < end; position++) {
+            int slot = (int) position & mask;
+            if (sequence.get(slot) != position + 1) {
+                continue;
+            }
+            T current = items.get(slot);
+            if (current != null && filter.test(current) && items.compareAndSet(slot, current, null)) {
+                tombstones.incrementAndGet();
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public int size() {
+        // Пред: нет
+        // Пост: возвращен размер очереди в некоторый момент вызова
+        while (true) {
+            long currentHead = head;
+            long currentTail = tail;
+            long currentTombstones = tombstones.get();
+            if (head == currentHead) {
+                return (int) Math.max(0, Math.min(currentTail - currentHead - currentTombstones, mask + 1));
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void clear() {
+        // Пред: нет
+        // Пост: удалены все элементы, добавленные до начала вызова
+        while (poll() != null) {
+            // элемент отброшен
+        }
+    }
+
+    @Override
+    public void enqueueAll(T[] elements) {
+        // Пред: elements != null, все элементы != null, в очереди есть место для всех элементов
+        // Пост: элементы добавлены по одному; при переполнении добавленная часть остается в очереди
+        for (T element : elements) {
+            if (element == null) {
+                throw new IllegalArgumentException("Error because value == null");
+            }
+        }
+        for (T element : elements) {
+            enqueue(element);
+        }
+    }
+
+    @Override
+    public void enqueueAll(Iterable<? extends T> elements) {
+        // Пред: elements != null, elements != this, все элементы elements != null
+        // Пост: как у enqueueAll(T[]) для копии elements
+        enqueueAll(AbstractQueue.snapshot(this, elements));
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> target, int maxElements) {
+        if (maxElements < 0) {
+            throw new IllegalArgumentException("maxElements < 0");
+        }
+        int count = 0;
+        T value;
+        while (count < maxElements && (value = poll()) != null) {
+            target.add(value);
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public int dequeueBatch(T[] target) {
+        int count = 0;
+        T value;
+        while (count < target.length && (value = poll()) != null) {
+            target[count++] = value;
+        }
+        return count;
+    }
+
+    @Override
+    public Queue<T> map(Function<? super T, T> foo) {
+        ConcurrentArrayQueue<T> result = new ConcurrentArrayQueue<>(capacity());
+        for (T element : this) {
+            result.enqueue(foo.apply(element));
+        }
+        return result;
+    }
+
+    @Override
+    public Queue<T> filter(Predicate<? super T> predicate) {
+        ConcurrentArrayQueue<T> result = new ConcurrentArrayQueue<>(capacity());
+        for (T element : this) {
+            if (predicate.test(element)) {
+                result.enqueue(element);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        // Пред: нет
+        // Пост: возвращен слабо согласованный курсор от головы к хвосту; элементы, извлеченные
+        //       во время обхода, пропускаются, ConcurrentModificationException не выбрасывается
+        return new Iterator<>() {
+            private long position = head;
+            private final long end = tail;
+            private T next = advance();
+
+            private T advance() {
+                position = Math.max(position, head);
+                while (position < end) {
+                    int slot = (int) position & mask;
+                    long current = position++;
+                    if (sequence.get(slot) == current + 1) {
+                        T value = items.get(slot);
+                        if (value != null) {
+                            return value;
+                        }
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                if (next == null) throw new NoSuchElementException();
+                T value = next;
+                next = advance();
+                return value;
+            }
+        };
+    }
+}
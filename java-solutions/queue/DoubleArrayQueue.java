@@ -0,0 +1,180 @@
+package queue;
+
+import java.util.NoSuchElementException;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+
+public class DoubleArrayQueue {
+    private double[] queue;
+    private int head;
+    private int tail;
+    private int size;
+
+    // модель: очередь значений double, упорядоченных по принципу FIFO, без упаковки в Double
+    // инвариант:
+    //   - queue != null, queue.length - степень двойки
+    //   - 0 <= head, tail < queue.length
+    //   - size >= 0
+
+    public DoubleArrayQueue() {
+        // Пред: нет (конструктор)
+        // Пост: создана пустая очередь с начальной емкостью DEFAULT_CAPACITY
+        this(RingBuffers.DEFAULT_CAPACITY);
+    }
+
+    public DoubleArrayQueue(int initialCapacity) {
+        // Пред: initialCapacity >= 0
+        // Пост: создана пустая очередь с емкостью не меньше initialCapacity
+        queue = new double[RingBuffers.capacityFor(initialCapacity)];
+        head = tail = size = 0;
+    }
+
+    public void enqueue(double value) {
+        // Пред: нет
+        // Пост: элемент добавлен в конец очереди, size увеличен на 1
+        if (size == queue.length) {
+            resize();
+        }
+        queue[tail] = value;
+        tail = (tail + 1) & (queue.length - 1);
+        size++;
+    }
+
+    public void push(double value) {
+        // Пред: нет
+        // Пост: элемент добавлен в начало очереди, size увеличен на 1
+        if (size == queue.length) {
+            resize();
+        }
+        head = (head - 1) & (queue.length - 1);
+        queue[head] = value;
+        size++;
+    }
+
+    private void resize() {
+        // Пред: массив заполнен (size == queue.length)
+        // Пост: емкость массива увеличена вдвое, порядок элементов сохранен
+        double[] newQueue = new double[RingBuffers.grownCapacity(queue.length)];
+        RingBuffers.unwrap(queue, queue.length, head, size, newQueue);
+        queue = newQueue;
+        head = 0;
+        tail = size;
+    }
+
+    public double element() {
+        // Пред: очередь не пуста (size > 0)
+        // Пост: возвращен первый элемент без изменения очереди
+        if (isEmpty()) {
+            throw new NoSuchElementException("Queue is empty!");
+        }
+        return queue[head];
+    }
+
+    public double peek() {
+        // Пред: очередь не пуста (size > 0)
+        // Пост: возвращен последний элемент без изменения очереди
+        if (isEmpty()) {
+            throw new NoSuchElementException("Queue is empty!");
+        }
+        return queue[(tail - 1) & (queue.length - 1)];
+    }
+
+    public double dequeue() {
+        // Пред: очередь не пуста (size > 0)
+        // Пост: первый элемент удален и возвращен, size уменьшен на 1
+        double value = element();
+        head = (head + 1) & (queue.length - 1);
+        size--;
+        return value;
+    }
+
+    public double remove() {
+        // Пред: очередь не пуста (size > 0)
+        // Пост: последний элемент удален и возвращен, size уменьшен на 1
+        double value = peek();
+        tail = (tail - 1) & (queue.length - 1);
+        size--;
+        return value;
+    }
+
+    public int size() {
+        // Пред: нет
+        // Пост: возвращен текущий размер очереди
+        return size;
+    }
+
+    public boolean isEmpty() {
+        // Пред: нет
+        // Пост: возвращено true, если очередь пуста, иначе false
+        return size == 0;
+    }
+
+    public void clear() {
+        // Пред: нет
+        // Пост: очередь очищена, массив переиспользуется
+        head = tail = size = 0;
+    }
+
+    public double get(int index) {
+        // Пред: 0 <= index < size
+        // Пост: возвращен элемент по индексу (отсчет с хвоста)
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Error: incorrect index value. Beyond the required range (index < 0 || index >= size)");
+        }
+        return queue[(tail - 1 - index) & (queue.length - 1)];
+    }
+
+    public void set(int index, double value) {
+        // Пред: 0 <= index < size
+        // Пост: элемент по индексу (отсчет с хвоста) заменен на value
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Error: incorrect index value. Beyond the required range (index < 0 || index >= size)");
+        }
+        queue[(tail - 1 - index) & (queue.length - 1)] = value;
+    }
+
+    public void forEach(DoubleConsumer action) {
+        // Пред: action != null
+        // Пост: action применен к каждому элементу от головы к хвосту
+        int mask = queue.length - 1;
+        for (int i = 0; i < size; i++) {
+            action.accept(queue[(head + i) & mask]);
+        }
+    }
+
+    public DoubleArrayQueue map(DoubleUnaryOperator function) {
+        // Пред: function != null
+        // Пост: возвращена новая очередь из function(e) для каждого элемента e в том же порядке
+        DoubleArrayQueue result = new DoubleArrayQueue(size);
+        int mask = queue.length - 1;
+        for (int i = 0; i < size; i++) {
+            result.queue[i] = function.applyAsDouble(queue[(head + i) & mask]);
+        }
+        result.size = size;
+        result.tail = size & (result.queue.length - 1);
+        return result;
+    }
+
+    public DoubleArrayQueue filter(DoublePredicate predicate) {
+        // Пред: predicate != null
+        // Пост: возвращена новая очередь из элементов, удовлетворяющих predicate, в том же порядке
+        DoubleArrayQueue result = new DoubleArrayQueue();
+        int mask = queue.length - 1;
+        for (int i = 0; i < size; i++) {
+            double value = queue[(head + i) & mask];
+            if (predicate.test(value)) {
+                result.enqueue(value);
+            }
+        }
+        return result;
+    }
+
+    public double[] toArray() {
+        // Пред: нет
+        // Пост: возвращен массив элементов от головы к хвосту
+        double[] result = new double[size];
+        RingBuffers.unwrap(queue, queue.length, head, size, result);
+        return result;
+    }
+}
@@ -0,0 +1,178 @@
+package queue;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+// Обертка над Queue, записывающая операции в QueueMetrics. Замеряются добавление и извлечение
+// (для пакетных операций - один замер на пакет). Размер ведется по приращениям, без вызова size() обернутой
+// очереди после каждой операции; исключения - removeIf и BoundedArrayQueue с политикой DROP_*, где число
+// добавленных элементов заранее не известно. Если обернута ArrayQueue, метрики подписываются на
+// перераспределение ее массива вслед за уже установленным наблюдателем.
+// Потокобезопасность та же, что у обернутой очереди.
+public class InstrumentedQueue<T> implements Queue<T> {
+    private final Queue<T> queue;
+    private final QueueMetrics metrics;
+    private final boolean dropsOnOverflow;
+
+    public InstrumentedQueue(Queue<T> queue) {
+        // Пред: queue != null
+        // Пост: создана обертка с новыми метриками
+        this(queue, new QueueMetrics());
+    }
+
+    public InstrumentedQueue(Queue<T> queue, QueueMetrics metrics) {
+        // Пред: queue != null, metrics != null
+        // Пост: создана обертка, пишущая в metrics
+        this.queue = queue;
+        this.metrics = metrics;
+        if (queue instanceof ArrayQueue) {
+            ArrayQueue<T> arrayQueue = (ArrayQueue<T>) queue;
+            ResizeListener previous = arrayQueue.resizeListener();
+            arrayQueue.setResizeListener(previous == null ? metrics : previous.andThen(metrics));
+        }
+        dropsOnOverflow = queue instanceof BoundedArrayQueue
+                && (((BoundedArrayQueue<T>) queue).policy() == OverflowPolicy.DROP_OLDEST
+                || ((BoundedArrayQueue<T>) queue).policy() == OverflowPolicy.DROP_NEWEST);
+        metrics.recordSize(queue.size());
+    }
+
+    private void recordEnqueue(int count, long nanos) {
+        // Пред: операция добавления count элементов завершилась без исключения
+        // Пост: добавление учтено в метриках; размер пересчитан, только если очередь могла отбросить элементы
+        if (dropsOnOverflow) {
+            metrics.recordEnqueue(count, nanos, queue.size());
+        } else {
+            metrics.recordEnqueue(count, nanos);
+        }
+    }
+
+    public QueueMetrics metrics() {
+        return metrics;
+    }
+
+    @Override
+    public void enqueue(T element) {
+        long start = System.nanoTime();
+        queue.enqueue(element);
+        recordEnqueue(1, System.nanoTime() - start);
+    }
+
+    @Override
+    public void push(T element) {
+        long start = System.nanoTime();
+        queue.push(element);
+        recordEnqueue(1, System.nanoTime() - start);
+    }
+
+    @Override
+    public void enqueueAll(T[] elements) {
+        long start = System.nanoTime();
+        queue.enqueueAll(elements);
+        recordEnqueue(elements.length, System.nanoTime() - start);
+    }
+
+    @Override
+    public void enqueueAll(Iterable<? extends T> elements) {
+        // Пред: elements != null, elements != this, все элементы elements != null
+        // Пост: как у enqueueAll(T[]) для копии elements
+        enqueueAll(AbstractQueue.snapshot(this, elements));
+    }
+
+    @Override
+    public T dequeue() {
+        long start = System.nanoTime();
+        T value = queue.dequeue();
+        metrics.recordDequeue(1, System.nanoTime() - start);
+        return value;
+    }
+
+    @Override
+    public T remove() {
+        long start = System.nanoTime();
+        T value = queue.remove();
+        metrics.recordDequeue(1, System.nanoTime() - start);
+        return value;
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> target, int maxElements) {
+        long start = System.nanoTime();
+        int count = queue.drainTo(target, maxElements);
+        metrics.recordDequeue(count, System.nanoTime() - start);
+        return count;
+    }
+
+    @Override
+    public int dequeueBatch(T[] target) {
+        long start = System.nanoTime();
+        int count = queue.dequeueBatch(target);
+        metrics.recordDequeue(count, System.nanoTime() - start);
+        return count;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        boolean removed = queue.removeIf(filter);
+        metrics.recordSize(queue.size());
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        queue.clear();
+        metrics.recordSize(0);
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        queue.replaceAll(operator);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public T element() {
+        return queue.element();
+    }
+
+    @Override
+    public T peek() {
+        return queue.peek();
+    }
+
+    @Override
+    public T get(int index) {
+        return queue.get(index);
+    }
+
+    @Override
+    public void set(int index, T value) {
+        queue.set(index, value);
+    }
+
+    @Override
+    public Queue<T> filter(Predicate<? super T> predicate) {
+        return queue.filter(predicate);
+    }
+
+    @Override
+    public Queue<T> map(Function<? super T, T> foo) {
+        return queue.map(foo);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return queue.iterator();
+    }
+}
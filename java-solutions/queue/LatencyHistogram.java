@@ -0,0 +1,119 @@
+package queue;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Гистограмма задержек в наносекундах с логарифмически-линейными корзинами, как в HdrHistogram:
+// каждая степень двойки делится на SUB_BUCKETS равных корзин, поэтому относительная погрешность
+// значения не превышает 1 / SUB_BUCKETS (около 3%), а весь диапазон long укладывается в фиксированный массив.
+// Счетчик корзины - LongAdder: записи из многих потоков в одну горячую корзину расходятся по разным ячейкам,
+// а не упираются в одну строку кэша. Запись не выделяет память, пока нет конкуренции; чтение работает со снимком.
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+
+    // инвариант: counts[i].sum() - число записанных значений v, для которых bucketOf(v) == i
+
+    public LatencyHistogram() {
+        // Пред: нет
+        // Пост: создана пустая гистограмма
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    static int bucketOf(long value) {
+        // Пред: value >= 0
+        // Пост: возвращен номер корзины, содержащей value; корзины упорядочены по возрастанию значений
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long highestValueIn(int bucket) {
+        // Пред: 0 <= bucket < BUCKETS
+        // Пост: возвращено наибольшее значение, попадающее в корзину bucket
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + ((1L << shift) - 1);
+    }
+
+    public void record(long nanos) {
+        // Пред: нет
+        // Пост: значение max(nanos, 0) учтено в гистограмме
+        counts[bucketOf(Math.max(nanos, 0))].increment();
+    }
+
+    public void reset() {
+        // Пред: нет
+        // Пост: все корзины обнулены (записи, идущие параллельно, могут сохраниться)
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i].reset();
+        }
+    }
+
+    public Snapshot snapshot() {
+        // Пред: нет
+        // Пост: возвращена копия счетчиков; параллельные записи в нее могут попасть частично
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts[i].sum();
+        }
+        return new Snapshot(copy);
+    }
+
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+
+        private Snapshot(long[] counts) {
+            this.counts = counts;
+            long total = 0;
+            for (long bucket : counts) {
+                total += bucket;
+            }
+            this.count = total;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public long valueAtPercentile(double percentile) {
+            // Пред: 0 <= percentile <= 100
+            // Пост: возвращена верхняя граница корзины, в которую попадает percentile-й процентиль,
+            //       или 0, если значений нет
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Error: percentile must be in [0, 100]");
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return highestValueIn(i);
+                }
+            }
+            return 0;
+        }
+
+        public long max() {
+            // Пред: нет
+            // Пост: возвращена верхняя граница старшей непустой корзины или 0, если значений нет
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] != 0) {
+                    return highestValueIn(i);
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -1,14 +1,16 @@
 package queue;
 
-import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
-import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 public class LinkedQueue<T> extends AbstractQueue<T> {
     private static class IntermediateClass<T> {
         T data;
         IntermediateClass<T> next;
+        IntermediateClass<T> prev;
 
         IntermediateClass(T data) {
             this.data = data;
@@ -18,6 +20,7 @@ public class LinkedQueue<T> extends AbstractQueue<T> {
     private IntermediateClass<T> head;
     private IntermediateClass<T> tail;
     private int size;
+    private int modCount;
 
     @Override
     protected AbstractQueue<T> createInstance() {
@@ -25,13 +28,36 @@ public class LinkedQueue<T> extends AbstractQueue<T> {
     }
 
     @Override
-    protected List<T> elements() {
-        List<T> list = new ArrayList<>();
-        Iterator<T> iterator = iterator();
-        while (iterator.hasNext()) {
-            list.add(iterator.next());
+    protected T elementAt(int index) {
+        return node(index).data;
+    }
+
+    // Пред: 0 <= index < size (отсчет с головы)
+    // Пост: возвращен узел по индексу; обход идет от ближайшего конца, т.е. за O(min(index, size - index)).
+    // Индекс узлов (массив или skip-список) не хранится: он сделал бы push/dequeue и removeIf дороже O(1)
+    // на элемент, а для доступа по индексу за O(1) есть ArrayQueue. Концы (element, peek, get(0),
+    // get(size - 1)) доступны за O(1).
+    private IntermediateClass<T> node(int index) {
+        if (index < size / 2) {
+            IntermediateClass<T> current = head;
+            for (int i = 0; i < index; i++) {
+                current = current.next;
+            }
+            return current;
+        }
+        IntermediateClass<T> current = tail;
+        for (int i = size - 1; i > index; i--) {
+            current = current.prev;
         }
-        return list;
+        return current;
+    }
+
+    @Override
+    public T peek() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Queue is empty");
+        }
+        return tail.data;
     }
 
     @Override
@@ -39,9 +65,53 @@ public class LinkedQueue<T> extends AbstractQueue<T> {
         push(element);
     }
 
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        modCount++;
+        for (IntermediateClass<T> current = head; current != null; current = current.next) {
+            T value = operator.apply(current.data);
+            if (value == null) {
+                throw new IllegalArgumentException("Value cannot be null");
+            }
+            current.data = value;
+        }
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        int before = size;
+        IntermediateClass<T> current = head;
+        while (current != null) {
+            IntermediateClass<T> next = current.next;
+            if (filter.test(current.data)) {
+                unlink(current);
+            }
+            current = next;
+        }
+        return size != before;
+    }
+
+    private void unlink(IntermediateClass<T> node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = node.next = null;
+        size--;
+        modCount++;
+    }
+
+    @Override
     public Iterator<T> iterator() {
         return new Iterator<>() {
             private IntermediateClass<T> current = head;
+            private final int expectedModCount = modCount;
 
             @Override
             public boolean hasNext() {
@@ -50,6 +120,7 @@ public class LinkedQueue<T> extends AbstractQueue<T> {
 
             @Override
             public T next() {
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
                 if (!hasNext()) throw new NoSuchElementException();
                 T data = current.data;
                 current = current.next;
@@ -68,15 +139,18 @@ public class LinkedQueue<T> extends AbstractQueue<T> {
             head = tail = newIntermediate;
         } else {
             tail.next = newIntermediate;
+            newIntermediate.prev = tail;
             tail = newIntermediate;
         }
         size++;
+        modCount++;
     }
 
     @Override
     public void clear() {
         head = tail = null;
         size = 0;
+        modCount++;
     }
 
     @Override
@@ -98,8 +172,11 @@ public class LinkedQueue<T> extends AbstractQueue<T> {
         head = head.next;
         if (head == null) {
             tail = null;
+        } else {
+            head.prev = null;
         }
         size--;
+        modCount++;
         return data;
     }
 
@@ -112,13 +189,10 @@ public class LinkedQueue<T> extends AbstractQueue<T> {
             clear();
             return;
         }
-        IntermediateClass<T> current = head;
-        while (current.next != tail) {
-            current = current.next;
-        }
-        tail = current;
+        tail = tail.prev;
         tail.next = null;
         size--;
+        modCount++;
     }
 
     @Override
@@ -129,22 +203,23 @@ public class LinkedQueue<T> extends AbstractQueue<T> {
         if (index < 0 || index >= size) {
             throw new IndexOutOfBoundsException("Invalid index");
         }
-        IntermediateClass<T> current = head;
-        for (int i = 0; i < index; i++) {
-            current = current.next;
-        }
-        current.data = value;
+        node(index).data = value;
     }
 
     @Override
     public void push(T element) {
+        if (element == null) {
+            throw new IllegalArgumentException("element == null");
+        }
         IntermediateClass<T> newNode = new IntermediateClass<>(element);
         if (isEmpty()) {
             head = tail = newNode;
         } else {
             newNode.next = head;
+            head.prev = newNode;
             head = newNode;
         }
         size++;
+        modCount++;
     }
 }
\ No newline at end of file
@@ -0,0 +1,529 @@
+package queue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+// Персистентная очередь записей фиксированного размера в отображенных в память файлах-сегментах.
+// Запись занимает HEADER байт признака и codec.recordSize() байт данных; признак ставится после данных,
+// поэтому недописанная при сбое запись не видна. Позиции head и tail хранятся в отображенном файле
+// контрольной точки и обновляются обычной записью в память, без системного вызова на сообщение.
+// Сегмент удаляется, когда все его записи извлечены; при открытии каталога tail восстанавливается
+// сканированием признаков от head: он обрезается до первой неподтвержденной записи, даже если контрольная
+// точка указывает дальше. В контрольной точке также лежат recordsPerSegment и размер записи; каталог,
+// созданный с другими значениями, не открывается.
+//
+// Доставка - "хотя бы один раз": после сбоя ОС записи, извлеченные после последнего force(),
+// могут быть прочитаны повторно. Изменять можно только записи в [head, tail) и конец очереди
+// (remove, set, removeIf); push не поддерживается: восстановление берет head из контрольной точки,
+// и запись перед head нельзя отличить от уже извлеченной.
+//
+// Каталог открывается одним экземпляром: конструктор берет исключительную блокировку файла контрольной точки
+// и бросает IllegalStateException, если она уже занята (другим процессом или экземпляром в этой JVM).
+// После close() блокировка снята, а любые операции бросают IllegalStateException. Отображение файла
+// освобождается только сборщиком мусора; в Windows такой файл нельзя удалить, поэтому извлеченный сегмент,
+// удалить который не удалось (AccessDeniedException), остается на диске и удаляется при следующем открытии.
+public class MappedSegmentQueue<T> implements Queue<T>, Closeable {
+    private static final int HEADER = 4;
+    private static final int COMMITTED = 0x51554555;
+    private static final String CHECKPOINT = "checkpoint";
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final int HEAD_OFFSET = 0;
+    private static final int TAIL_OFFSET = 8;
+    private static final int RECORDS_PER_SEGMENT_OFFSET = 16;
+    private static final int RECORD_SIZE_OFFSET = 20;
+    private static final int CHECKPOINT_SIZE = 24;
+
+    private final Path directory;
+    private final RecordCodec<T> codec;
+    private final int slotSize;
+    private final int recordsPerSegment;
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private final FileChannel checkpointChannel;
+    private final FileLock lock;
+    private MappedByteBuffer checkpoint;
+    private boolean closed;
+    private long head;
+    private long tail;
+    private long firstSegment;
+    private int modCount;
+
+    // инвариант:
+    //   - head <= tail, элементы очереди - записи с позициями [head, tail)
+    //   - запись с позицией p лежит в сегменте p / recordsPerSegment со смещением (p % recordsPerSegment) * slotSize
+    //   - на диске лежат сегменты с номерами [firstSegment, tail / recordsPerSegment], firstSegment <= head / recordsPerSegment
+    //   - segments содержит уже отображенные из них
+    //   - checkpoint хранит head, tail, recordsPerSegment и codec.recordSize() (смещения *_OFFSET)
+    //   - пока !closed, lock удерживается и checkpoint != null
+
+    public MappedSegmentQueue(Path directory, RecordCodec<T> codec, int recordsPerSegment) throws IOException {
+        // Пред: directory != null, codec != null, recordsPerSegment > 0
+        // Пост: открыта очередь в directory; если там уже есть данные, восстановлены head и tail
+        //       (IllegalArgumentException, если они записаны с другими recordsPerSegment или размером записи);
+        //       если каталог уже открыт другим экземпляром - IllegalStateException
+        if (recordsPerSegment <= 0) {
+            throw new IllegalArgumentException("Error: recordsPerSegment <= 0");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.codec = codec;
+        this.slotSize = HEADER + codec.recordSize();
+        if ((long) slotSize * recordsPerSegment > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Error: segment is larger than 2 GiB");
+        }
+        this.recordsPerSegment = recordsPerSegment;
+        this.checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            this.lock = tryLock(checkpointChannel);
+            if (lock == null) {
+                throw new IllegalStateException("Error: queue directory is already open: " + directory);
+            }
+            this.checkpoint = checkpointChannel.map(FileChannel.MapMode.READ_WRITE, 0, CHECKPOINT_SIZE);
+            checkpoint.order(ByteOrder.LITTLE_ENDIAN);
+            checkLayout(codec.recordSize());
+            recover();
+        } catch (IOException | RuntimeException e) {
+            checkpointChannel.close();
+            throw e;
+        }
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        // Пред: channel открыт на запись
+        // Пост: возвращена исключительная блокировка файла или null, если она уже занята
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Блокировку держит другой канал этой же JVM
+            return null;
+        }
+    }
+
+    private MappedByteBuffer map(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    private void checkLayout(int recordSize) {
+        // Пред: checkpoint отображен
+        // Пост: в новой контрольной точке записаны recordsPerSegment и recordSize;
+        //       если там уже другие значения - IllegalArgumentException
+        int storedRecordsPerSegment = checkpoint.getInt(RECORDS_PER_SEGMENT_OFFSET);
+        int storedRecordSize = checkpoint.getInt(RECORD_SIZE_OFFSET);
+        if (storedRecordsPerSegment == 0 && storedRecordSize == 0) {
+            checkpoint.putInt(RECORDS_PER_SEGMENT_OFFSET, recordsPerSegment);
+            checkpoint.putInt(RECORD_SIZE_OFFSET, recordSize);
+        } else if (storedRecordsPerSegment != recordsPerSegment || storedRecordSize != recordSize) {
+            throw new IllegalArgumentException(String.format(
+                    "Error: directory was written with recordsPerSegment = %d and recordSize = %d, not %d and %d",
+                    storedRecordsPerSegment, storedRecordSize, recordsPerSegment, recordSize));
+        }
+    }
+
+    private void recover() throws IOException {
+        // Пред: checkpoint отображен и проверен
+        // Пост: head взят из контрольной точки (но не раньше первого существующего сегмента),
+        //       tail - первая неподтвержденная позиция начиная с head (сохраненный tail не используется:
+        //       он может отставать от данных или указывать за них после сбоя),
+        //       файлы полностью извлеченных сегментов удалены
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (var list = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) list::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(SEGMENT_SUFFIX)) {
+                    long segment;
+                    try {
+                        segment = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                    } catch (NumberFormatException e) {
+                        // Чужой файл с тем же расширением - не сегмент очереди
+                        continue;
+                    }
+                    if (segment >= 0) {
+                        files.put(segment, file);
+                    }
+                }
+            }
+        }
+        head = Math.max(0, checkpoint.getLong(HEAD_OFFSET));
+        tail = head;
+        if (files.isEmpty()) {
+            firstSegment = head / recordsPerSegment;
+        } else {
+            head = Math.max(head, files.firstKey() * recordsPerSegment);
+            tail = head;
+            for (Path file : files.headMap(head / recordsPerSegment).values()) {
+                deleteSegmentFile(file);
+            }
+            firstSegment = Math.max(files.firstKey(), head / recordsPerSegment);
+            while (isCommitted(tail)) {
+                tail++;
+            }
+        }
+        writeCheckpoint();
+    }
+
+    private boolean isCommitted(long position) throws IOException {
+        long segment = position / recordsPerSegment;
+        if (!segments.containsKey(segment) && !Files.exists(segmentFile(segment))) {
+            return false;
+        }
+        return segment(segment).getInt(slotOffset(position)) == COMMITTED;
+    }
+
+    private Path segmentFile(long segment) {
+        return directory.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+    }
+
+    private MappedByteBuffer segment(long segment) throws IOException {
+        MappedByteBuffer buffer = segments.get(segment);
+        if (buffer == null) {
+            buffer = map(segmentFile(segment), (long) slotSize * recordsPerSegment);
+            segments.put(segment, buffer);
+        }
+        return buffer;
+    }
+
+    private MappedByteBuffer segmentOf(long position) {
+        try {
+            return segment(position / recordsPerSegment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int slotOffset(long position) {
+        return (int) (position % recordsPerSegment) * slotSize;
+    }
+
+    private void writeCheckpoint() {
+        checkpoint.putLong(HEAD_OFFSET, head);
+        checkpoint.putLong(TAIL_OFFSET, tail);
+    }
+
+    private void releaseConsumedSegments() {
+        // Пред: нет
+        // Пост: сегменты, все записи которых извлечены, отключены и удалены с диска
+        long current = head / recordsPerSegment;
+        for (; firstSegment < current; firstSegment++) {
+            segments.remove(firstSegment);
+            try {
+                deleteSegmentFile(segmentFile(firstSegment));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static void deleteSegmentFile(Path file) throws IOException {
+        // Пред: отображение файла уже не используется очередью
+        // Пост: файл удален; если ОС не дает удалить еще не освобожденное отображение (Windows),
+        //       файл оставлен: он лежит перед head и будет удален при следующем открытии
+        try {
+            Files.deleteIfExists(file);
+        } catch (AccessDeniedException e) {
+            // Отображение освободит сборщик мусора; повторная попытка - в recover()
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Error: queue is closed");
+        }
+    }
+
+    public void force() {
+        // Пред: очередь не закрыта
+        // Пост: записи и контрольная точка сброшены на диск
+        ensureOpen();
+        for (MappedByteBuffer buffer : segments.values()) {
+            buffer.force();
+        }
+        checkpoint.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Пред: нет
+        // Пост: данные сброшены на диск, блокировка каталога снята, ссылки на отображения отпущены;
+        //       повторный вызов ничего не делает
+        if (closed) {
+            return;
+        }
+        try {
+            force();
+        } finally {
+            closed = true;
+            segments.clear();
+            checkpoint = null;
+            checkpointChannel.close();
+        }
+    }
+
+    @Override
+    public void enqueue(T value) {
+        // Пред: value != null
+        // Пост: запись добавлена в конец очереди и помечена подтвержденной, tail увеличен на 1
+        ensureOpen();
+        if (value == null) {
+            throw new IllegalArgumentException("Error because value == null");
+        }
+        MappedByteBuffer buffer = segmentOf(tail);
+        int offset = slotOffset(tail);
+        codec.write(buffer, offset + HEADER, value);
+        buffer.putInt(offset, COMMITTED);
+        tail++;
+        modCount++;
+        writeCheckpoint();
+    }
+
+    @Override
+    public T dequeue() {
+        // Пред: очередь не пуста
+        // Пост: первая запись удалена и возвращена; полностью прочитанный сегмент удален
+        ensureOpen();
+        T value = element();
+        head++;
+        modCount++;
+        writeCheckpoint();
+        if (head % recordsPerSegment == 0 || head == tail) {
+            releaseConsumedSegments();
+        }
+        return value;
+    }
+
+    @Override
+    public T remove() {
+        // Пред: очередь не пуста
+        // Пост: последняя запись удалена (признак снят) и возвращена
+        ensureOpen();
+        T value = peek();
+        tail--;
+        segmentOf(tail).putInt(slotOffset(tail), 0);
+        modCount++;
+        writeCheckpoint();
+        return value;
+    }
+
+    @Override
+    public void push(T element) {
+        throw new UnsupportedOperationException("push is not supported: records before head are treated as consumed on recovery");
+    }
+
+    @Override
+    public T element() {
+        ensureOpen();
+        if (isEmpty()) {
+            throw new NoSuchElementException("Queue is empty!");
+        }
+        return read(head);
+    }
+
+    @Override
+    public T peek() {
+        ensureOpen();
+        if (isEmpty()) {
+            throw new NoSuchElementException("Queue is empty!");
+        }
+        return read(tail - 1);
+    }
+
+    private T read(long position) {
+        return codec.read(segmentOf(position), slotOffset(position) + HEADER);
+    }
+
+    @Override
+    public T get(int index) {
+        // Пред: 0 <= index < size
+        // Пост: возвращен элемент по индексу (отсчет с хвоста)
+        ensureOpen();
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Error: incorrect index value. Beyond the required range (index < 0 || index >= size)");
+        }
+        return read(tail - 1 - index);
+    }
+
+    @Override
+    public void set(int index, T value) {
+        // Пред: value != null, 0 <= index < size
+        // Пост: элемент по индексу (отсчет с хвоста) перезаписан на месте
+        ensureOpen();
+        if (value == null) {
+            throw new IllegalArgumentException("Error because value == null");
+        }
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Error: incorrect index value. Beyond the required range (index < 0 || index >= size)");
+        }
+        long position = tail - 1 - index;
+        codec.write(segmentOf(position), slotOffset(position) + HEADER, value);
+    }
+
+    @Override
+    public int size() {
+        ensureOpen();
+        return (int) Math.min(tail - head, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        ensureOpen();
+        return head == tail;
+    }
+
+    @Override
+    public void clear() {
+        // Пред: нет
+        // Пост: все записи считаются извлеченными, сегменты удалены
+        ensureOpen();
+        head = tail;
+        modCount++;
+        writeCheckpoint();
+        releaseConsumedSegments();
+    }
+
+    @Override
+    public void enqueueAll(T[] elements) {
+        AbstractQueue.checkNotNull(elements);
+        for (T element : elements) {
+            enqueue(element);
+        }
+    }
+
+    @Override
+    public void enqueueAll(Iterable<? extends T> elements) {
+        // Пред: elements != null, elements != this, все элементы elements != null
+        // Пост: как у enqueueAll(T[]) для копии elements
+        enqueueAll(AbstractQueue.snapshot(this, elements));
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> target, int maxElements) {
+        if (maxElements < 0) {
+            throw new IllegalArgumentException("maxElements < 0");
+        }
+        int count = Math.min(maxElements, size());
+        for (int i = 0; i < count; i++) {
+            target.add(dequeue());
+        }
+        return count;
+    }
+
+    @Override
+    public int dequeueBatch(T[] target) {
+        int count = Math.min(target.length, size());
+        for (int i = 0; i < count; i++) {
+            target[i] = dequeue();
+        }
+        return count;
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        // Пред: operator != null, operator не возвращает null
+        // Пост: каждая запись перезаписана на месте значением operator(e)
+        ensureOpen();
+        modCount++;
+        for (long position = head; position < tail; position++) {
+            T value = operator.apply(read(position));
+            if (value == null) {
+                throw new IllegalArgumentException("Error because value == null");
+            }
+            codec.write(segmentOf(position), slotOffset(position) + HEADER, value);
+        }
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        // Пред: filter != null
+        // Пост: записи, для которых filter истинен, удалены; остальные сдвинуты к head с сохранением порядка,
+        //       признаки освободившихся в конце слотов сняты, как в remove
+        ensureOpen();
+        // Сдвиг не атомарен относительно сбоя: после него часть записей может быть прочитана повторно
+        long write = head;
+        for (long read = head; read < tail; read++) {
+            T value = read(read);
+            if (!filter.test(value)) {
+                if (write != read) {
+                    codec.write(segmentOf(write), slotOffset(write) + HEADER, value);
+                }
+                write++;
+            }
+        }
+        if (write == tail) {
+            return false;
+        }
+        for (long position = tail - 1; position >= write; position--) {
+            segmentOf(position).putInt(slotOffset(position), 0);
+        }
+        tail = write;
+        modCount++;
+        writeCheckpoint();
+        return true;
+    }
+
+    @Override
+    public Queue<T> map(Function<? super T, T> foo) {
+        // Пред: foo != null
+        // Пост: возвращена новая очередь в памяти (ArrayQueue) из foo(e) для каждого элемента
+        ArrayQueue<T> result = new ArrayQueue<>();
+        for (T element : this) {
+            result.enqueue(foo.apply(element));
+        }
+        return result;
+    }
+
+    @Override
+    public Queue<T> filter(Predicate<? super T> predicate) {
+        // Пред: predicate != null
+        // Пост: возвращена новая очередь в памяти (ArrayQueue) из элементов, удовлетворяющих predicate
+        ArrayQueue<T> result = new ArrayQueue<>();
+        for (T element : this) {
+            if (predicate.test(element)) {
+                result.enqueue(element);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        ensureOpen();
+        return new Iterator<>() {
+            private long position = head;
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return position < tail;
+            }
+
+            @Override
+            public T next() {
+                ensureOpen();
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
+                if (!hasNext()) throw new NoSuchElementException();
+                return read(position++);
+            }
+        };
+    }
+}
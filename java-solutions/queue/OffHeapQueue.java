@@ -0,0 +1,280 @@
+package queue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+// Очередь записей фиксированного размера в памяти вне кучи (direct ByteBuffer).
+// Элементы хранятся в виде байтов, закодированных RecordCodec, поэтому сборщик мусора не обходит их;
+// объект элемента создается только при чтении. Семантика операций совпадает с ArrayQueue,
+// включая get/set с отсчетом от хвоста.
+public class OffHeapQueue<T> extends AbstractQueue<T> {
+    private final RecordCodec<T> codec;
+    private final int recordSize;
+    private ByteBuffer buffer;
+    private int capacity;
+    private int head;
+    private int tail;
+    private int size;
+    private int modCount;
+
+    // модель: очередь, представляющая собой последовательность элементов, упорядоченных по принципу FIFO
+    // инвариант:
+    //   - buffer.capacity() == capacity * recordSize, capacity - степень двойки
+    //   - 0 <= head, tail < capacity, 0 <= size <= capacity
+    //   - элемент с позицией p в кольце хранится в байтах [p * recordSize, (p + 1) * recordSize)
+
+    public OffHeapQueue(RecordCodec<T> codec) {
+        // Пред: codec != null
+        // Пост: создана пустая очередь с начальной емкостью DEFAULT_CAPACITY записей
+        this(codec, RingBuffers.DEFAULT_CAPACITY);
+    }
+
+    public OffHeapQueue(RecordCodec<T> codec, int initialCapacity) {
+        // Пред: codec != null, codec.recordSize() > 0, initialCapacity >= 0
+        // Пост: создана пустая очередь с емкостью не меньше initialCapacity записей
+        if (codec.recordSize() <= 0) {
+            throw new IllegalArgumentException("Error: recordSize <= 0");
+        }
+        this.codec = codec;
+        this.recordSize = codec.recordSize();
+        this.capacity = RingBuffers.capacityFor(initialCapacity);
+        this.buffer = allocate(capacity);
+    }
+
+    private ByteBuffer allocate(int records) {
+        // Пред: records - степень двойки
+        // Пост: выделен direct-буфер на records записей
+        if ((long) records * recordSize > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Error: queue capacity overflow");
+        }
+        return ByteBuffer.allocateDirect(records * recordSize).order(ByteOrder.nativeOrder());
+    }
+
+    private int offset(int position) {
+        return position * recordSize;
+    }
+
+    public void enqueue(T value) {
+        // Пред: value != null
+        // Пост: элемент добавлен в конец очереди, size увеличен на 1
+        if (value == null) {
+            throw new IllegalArgumentException("Error because value == null");
+        }
+        if (size == capacity) {
+            resize();
+        }
+        codec.write(buffer, offset(tail), value);
+        tail = (tail + 1) & (capacity - 1);
+        size++;
+        modCount++;
+    }
+
+    public void push(T value) {
+        // Пред: value != null
+        // Пост: элемент добавлен в начало очереди, size увеличен на 1
+        if (value == null) {
+            throw new IllegalArgumentException("Error because value == null");
+        }
+        if (size == capacity) {
+            resize();
+        }
+        head = (head - 1) & (capacity - 1);
+        codec.write(buffer, offset(head), value);
+        size++;
+        modCount++;
+    }
+
+    private void resize() {
+        // Пред: буфер заполнен (size == capacity)
+        // Пост: емкость увеличена вдвое, записи перенесены в начало нового буфера двумя копированиями блоков
+        int newCapacity = RingBuffers.grownCapacity(capacity);
+        ByteBuffer newBuffer = allocate(newCapacity);
+        int first = Math.min(size, capacity - head);
+        newBuffer.put(0, buffer, offset(head), offset(first));
+        newBuffer.put(offset(first), buffer, 0, offset(size - first));
+        buffer = newBuffer;
+        capacity = newCapacity;
+        head = 0;
+        tail = size;
+    }
+
+    public T element() {
+        // Пред: очередь не пуста (size > 0)
+        // Пост: возвращен первый элемент без изменения очереди
+        if (isEmpty()) {
+            throw new NoSuchElementException("Queue is empty!");
+        }
+        return codec.read(buffer, offset(head));
+    }
+
+    @Override
+    public T peek() {
+        // Пред: очередь не пуста (size > 0)
+        // Пост: возвращен последний элемент без изменения очереди
+        if (isEmpty()) {
+            throw new NoSuchElementException("Queue is empty!");
+        }
+        return codec.read(buffer, offset((tail - 1) & (capacity - 1)));
+    }
+
+    public T dequeue() {
+        // Пред: очередь не пуста (size > 0)
+        // Пост: первый элемент удален и возвращен, size уменьшен на 1
+        T value = element();
+        head = (head + 1) & (capacity - 1);
+        size--;
+        modCount++;
+        return value;
+    }
+
+    @Override
+    public T remove() {
+        // Пред: очередь не пуста (size > 0)
+        // Пост: последний элемент удален и возвращен, size уменьшен на 1
+        T value = peek();
+        tail = (tail - 1) & (capacity - 1);
+        size--;
+        modCount++;
+        return value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public void clear() {
+        // Пред: нет
+        // Пост: очередь очищена, буфер переиспользуется
+        head = tail = size = 0;
+        modCount++;
+    }
+
+    @Override
+    public T get(int index) {
+        // Пред: 0 <= index < size
+        // Пост: возвращен элемент по индексу (отсчет с хвоста)
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Error: incorrect index value. Beyond the required range (index < 0 || index >= size)");
+        }
+        return codec.read(buffer, offset((tail - 1 - index) & (capacity - 1)));
+    }
+
+    @Override
+    public void set(int index, T value) {
+        // Пред:
+        //   - value != null
+        //   - 0 <= index < size
+        // Пост: элемент по индексу (отсчет с хвоста) заменен на value
+        if (value == null) {
+            throw new IllegalArgumentException("Error because value == null");
+        }
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Error: incorrect index value. Beyond the required range (index < 0 || index >= size)");
+        }
+        codec.write(buffer, offset((tail - 1 - index) & (capacity - 1)), value);
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        // Пред: operator != null, operator не возвращает null
+        // Пост: каждая запись перезаписана на месте значением operator(e) за один проход по кольцу
+        modCount++;
+        int mask = capacity - 1;
+        for (int i = 0; i < size; i++) {
+            int position = (head + i) & mask;
+            T value = operator.apply(codec.read(buffer, offset(position)));
+            if (value == null) {
+                throw new IllegalArgumentException("Error because value == null");
+            }
+            codec.write(buffer, offset(position), value);
+        }
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        // Пред: filter != null
+        // Пост: записи, удовлетворяющие filter, удалены одним проходом уплотнения кольца (копированием байтов,
+        //       без повторного кодирования), порядок остальных сохранен; возвращено true, если что-то удалено.
+        //       Если filter выбросил исключение, непроверенные записи сохраняются
+        int mask = capacity - 1;
+        int before = size;
+        int kept = 0;
+        int i = 0;
+        try {
+            for (; i < size; i++) {
+                int position = (head + i) & mask;
+                if (!filter.test(codec.read(buffer, offset(position)))) {
+                    moveRecord(position, (head + kept++) & mask);
+                }
+            }
+        } finally {
+            for (; i < size; i++) {
+                moveRecord((head + i) & mask, (head + kept++) & mask);
+            }
+            tail = (head + kept) & mask;
+            size = kept;
+            modCount++;
+        }
+        return size != before;
+    }
+
+    private void moveRecord(int from, int to) {
+        if (from != to) {
+            buffer.put(offset(to), buffer, offset(from), recordSize);
+        }
+    }
+
+    @Override
+    protected AbstractQueue<T> createInstance() {
+        return new OffHeapQueue<>(codec);
+    }
+
+    @Override
+    protected T elementAt(int index) {
+        return codec.read(buffer, offset((head + index) & (capacity - 1)));
+    }
+
+    @Override
+    protected void enqueueFirst(T element) {
+        push(element);
+    }
+
+    @Override
+    protected void dequeueLast() {
+        remove();
+    }
+
+    @Override
+    protected void updateElement(int index, T value) {
+        set(index, value);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int index = 0;
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public T next() {
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
+                if (!hasNext()) throw new NoSuchElementException();
+                return elementAt(index++);
+            }
+        };
+    }
+}
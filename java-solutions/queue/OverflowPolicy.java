@@ -0,0 +1,14 @@
+package queue;
+
+// Поведение ограниченной очереди при добавлении в заполненную очередь.
+public enum OverflowPolicy {
+    // Элемент не добавляется, бросается IllegalStateException; учитывается как отклоненный
+    REJECT,
+    // Из головы очереди удаляется самый старый элемент, новый добавляется; учитывается как отброшенный
+    DROP_OLDEST,
+    // Новый элемент молча не добавляется; учитывается как отброшенный
+    DROP_NEWEST,
+    // Поток ждет освобождения места не дольше заданного таймаута, затем поступает как REJECT;
+    // прерывание ожидания не считается отклонением: бросается IllegalStateException, флаг прерывания сохранен
+    BLOCK
+}
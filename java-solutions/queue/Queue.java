@@ -1,8 +1,15 @@
 package queue;
+import java.util.Collection;
 import java.util.function.Predicate;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
-public interface Queue<T> {
+// Общий интерфейс очередей. Реализации для нескольких потоков поддерживают не все операции:
+//   - SpscArrayQueue: push, remove, replaceAll и removeIf бросают UnsupportedOperationException
+//     (у каждого конца ровно один поток-владелец, изменять чужой конец или середину некому);
+//   - ConcurrentArrayQueue: push не поддерживается, remove/set/replaceAll/removeIf слабо согласованы;
+//   - MappedSegmentQueue: push не поддерживается (журнал на диске только дописывается в конец).
+public interface Queue<T> extends Iterable<T> {
     void enqueue (T element);
     void clear();
     boolean isEmpty();
@@ -16,4 +23,14 @@ public interface Queue<T> {
     void push(T element);
     T get(int index);
     void set(int index, T value);
+    void enqueueAll(T[] elements);
+    void enqueueAll(Iterable<? extends T> elements);
+    int drainTo(Collection<? super T> target, int maxElements);
+    int dequeueBatch(T[] target);
+    void replaceAll(UnaryOperator<T> operator);
+    boolean removeIf(Predicate<? super T> filter);
+
+    default QueuePipeline<T> lazy() {
+        return QueuePipeline.of(this);
+    }
 }
@@ -0,0 +1,221 @@
+package queue;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Счетчики одной очереди: количество добавленных и извлеченных элементов, текущий и пиковый размер,
+// события роста и сжатия массива с числом перенесенных элементов, гистограммы задержек enqueue/dequeue.
+// Счетчики - LongAdder, поэтому запись из нескольких потоков не упирается в одну строку кэша.
+// Заполняется InstrumentedQueue; читается через snapshot() или JMX после register(name).
+public class QueueMetrics implements QueueMetricsMXBean, ResizeListener {
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dequeued = new LongAdder();
+    private final LongAdder grows = new LongAdder();
+    private final LongAdder shrinks = new LongAdder();
+    private final LongAdder copied = new LongAdder();
+    private final LongAccumulator peakSize = new LongAccumulator(Math::max, 0);
+    private final LatencyHistogram enqueueLatency = new LatencyHistogram();
+    private final LatencyHistogram dequeueLatency = new LatencyHistogram();
+    private final AtomicLong currentSize = new AtomicLong();
+    private ObjectName objectName;
+
+    public void recordEnqueue(int count, long nanos) {
+        // Пред: count >= 0, операция увеличила размер очереди ровно на count
+        // Пост: учтено добавление count элементов за nanos наносекунд, текущий размер увеличен на count
+        enqueued.add(count);
+        enqueueLatency.record(nanos);
+        peakSize.accumulate(currentSize.addAndGet(count));
+    }
+
+    public void recordEnqueue(int count, long nanos, int size) {
+        // Пред: count >= 0, size - размер очереди после операции
+        // Пост: учтено добавление count элементов за nanos наносекунд
+        enqueued.add(count);
+        enqueueLatency.record(nanos);
+        recordSize(size);
+    }
+
+    public void recordDequeue(int count, long nanos) {
+        // Пред: count >= 0, операция уменьшила размер очереди ровно на count
+        // Пост: учтено извлечение count элементов за nanos наносекунд, текущий размер уменьшен на count
+        dequeued.add(count);
+        dequeueLatency.record(nanos);
+        currentSize.addAndGet(-count);
+    }
+
+    public void recordSize(int size) {
+        // Пред: size >= 0
+        // Пост: текущий размер равен size, пиковый размер не меньше size
+        currentSize.set(size);
+        peakSize.accumulate(size);
+    }
+
+    @Override
+    public void onResize(int oldCapacity, int newCapacity, int copiedElements) {
+        if (newCapacity > oldCapacity) {
+            grows.increment();
+        } else {
+            shrinks.increment();
+        }
+        copied.add(copiedElements);
+    }
+
+    @Override
+    public long getEnqueueCount() {
+        return enqueued.sum();
+    }
+
+    @Override
+    public long getDequeueCount() {
+        return dequeued.sum();
+    }
+
+    @Override
+    public long getCurrentSize() {
+        return currentSize.get();
+    }
+
+    @Override
+    public long getPeakSize() {
+        return peakSize.get();
+    }
+
+    @Override
+    public long getGrowCount() {
+        return grows.sum();
+    }
+
+    @Override
+    public long getShrinkCount() {
+        return shrinks.sum();
+    }
+
+    @Override
+    public long getCopiedElements() {
+        return copied.sum();
+    }
+
+    @Override
+    public long getEnqueueLatencyP50Nanos() {
+        return enqueueLatency.snapshot().valueAtPercentile(50);
+    }
+
+    @Override
+    public long getEnqueueLatencyP99Nanos() {
+        return enqueueLatency.snapshot().valueAtPercentile(99);
+    }
+
+    @Override
+    public long getEnqueueLatencyMaxNanos() {
+        return enqueueLatency.snapshot().max();
+    }
+
+    @Override
+    public long getDequeueLatencyP50Nanos() {
+        return dequeueLatency.snapshot().valueAtPercentile(50);
+    }
+
+    @Override
+    public long getDequeueLatencyP99Nanos() {
+        return dequeueLatency.snapshot().valueAtPercentile(99);
+    }
+
+    @Override
+    public long getDequeueLatencyMaxNanos() {
+        return dequeueLatency.snapshot().max();
+    }
+
+    @Override
+    public void reset() {
+        // Пред: нет
+        // Пост: счетчики и гистограммы обнулены, пиковый размер равен текущему
+        enqueued.reset();
+        dequeued.reset();
+        grows.reset();
+        shrinks.reset();
+        copied.reset();
+        enqueueLatency.reset();
+        dequeueLatency.reset();
+        peakSize.reset();
+        peakSize.accumulate(currentSize.get());
+    }
+
+    public Snapshot snapshot() {
+        // Пред: нет
+        // Пост: возвращены значения всех счетчиков; счетчики читаются по отдельности,
+        //       поэтому при параллельной записи снимок согласован лишь приблизительно
+        return new Snapshot(this);
+    }
+
+    public synchronized ObjectName register(String name) {
+        // Пред: name != null, метрики еще не зарегистрированы
+        // Пост: метрики опубликованы в платформенном MBeanServer под queue:type=QueueMetrics,name=<name>
+        if (objectName != null) {
+            throw new IllegalStateException("Error: metrics are already registered as " + objectName);
+        }
+        try {
+            ObjectName candidate = new ObjectName("queue:type=QueueMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, candidate);
+            objectName = candidate;
+            return candidate;
+        } catch (JMException e) {
+            throw new IllegalStateException("Error: cannot register queue metrics " + name, e);
+        }
+    }
+
+    public synchronized void unregister() {
+        // Пред: нет
+        // Пост: метрики сняты с публикации, если были зарегистрированы
+        if (objectName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Error: cannot unregister queue metrics " + objectName, e);
+        } finally {
+            objectName = null;
+        }
+    }
+
+    public static final class Snapshot {
+        public final long enqueueCount;
+        public final long dequeueCount;
+        public final long currentSize;
+        public final long peakSize;
+        public final long growCount;
+        public final long shrinkCount;
+        public final long copiedElements;
+        public final LatencyHistogram.Snapshot enqueueLatency;
+        public final LatencyHistogram.Snapshot dequeueLatency;
+
+        private Snapshot(QueueMetrics metrics) {
+            enqueueCount = metrics.getEnqueueCount();
+            dequeueCount = metrics.getDequeueCount();
+            currentSize = metrics.getCurrentSize();
+            peakSize = metrics.getPeakSize();
+            growCount = metrics.getGrowCount();
+            shrinkCount = metrics.getShrinkCount();
+            copiedElements = metrics.getCopiedElements();
+            enqueueLatency = metrics.enqueueLatency.snapshot();
+            dequeueLatency = metrics.dequeueLatency.snapshot();
+        }
+
+        @Override
+        public String toString() {
+            return "enqueued=" + enqueueCount + ", dequeued=" + dequeueCount
+                    + ", size=" + currentSize + ", peak=" + peakSize
+                    + ", grows=" + growCount + ", shrinks=" + shrinkCount + ", copied=" + copiedElements
+                    + ", enqueue p99=" + enqueueLatency.valueAtPercentile(99) + "ns"
+                    + ", dequeue p99=" + dequeueLatency.valueAtPercentile(99) + "ns";
+        }
+    }
+}
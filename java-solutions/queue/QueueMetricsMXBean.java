@@ -0,0 +1,32 @@
+package queue;
+
+// Атрибуты QueueMetrics, публикуемые через JMX (ObjectName queue:type=QueueMetrics,name=<имя>).
+public interface QueueMetricsMXBean {
+    long getEnqueueCount();
+
+    long getDequeueCount();
+
+    long getCurrentSize();
+
+    long getPeakSize();
+
+    long getGrowCount();
+
+    long getShrinkCount();
+
+    long getCopiedElements();
+
+    long getEnqueueLatencyP50Nanos();
+
+    long getEnqueueLatencyP99Nanos();
+
+    long getEnqueueLatencyMaxNanos();
+
+    long getDequeueLatencyP50Nanos();
+
+    long getDequeueLatencyP99Nanos();
+
+    long getDequeueLatencyMaxNanos();
+
+    void reset();
+}
@@ -0,0 +1,73 @@
+package queue;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Ленивая цепочка преобразований над очередью. map и filter только запоминают шаг: каждый шаг
+// оборачивает приемник следующего шага, поэтому вся цепочка выполняется за один проход по источнику
+// без промежуточных очередей. Источник обходится только в терминальных операциях forEach, count, toQueue;
+// изменения источника до терминальной операции в ней видны.
+public class QueuePipeline<T> {
+    private final Iterable<?> source;
+    private final Function<Consumer<? super T>, Consumer<Object>> stages;
+
+    // инвариант: stages(sink) возвращает приемник элементов source, передающий в sink результаты всех шагов
+
+    private QueuePipeline(Iterable<?> source, Function<Consumer<? super T>, Consumer<Object>> stages) {
+        this.source = source;
+        this.stages = stages;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> QueuePipeline<T> of(Iterable<T> source) {
+        // Пред: source != null
+        // Пост: возвращена пустая цепочка над source
+        return new QueuePipeline<>(source, sink -> (Consumer<Object>) sink);
+    }
+
+    public <R> QueuePipeline<R> map(Function<? super T, ? extends R> function) {
+        // Пред: function != null
+        // Пост: возвращена цепочка с добавленным шагом преобразования; источник не обходится
+        return new QueuePipeline<>(source, sink -> stages.apply(element -> sink.accept(function.apply(element))));
+    }
+
+    public QueuePipeline<T> filter(Predicate<? super T> predicate) {
+        // Пред: predicate != null
+        // Пост: возвращена цепочка с добавленным шагом фильтрации; источник не обходится
+        return new QueuePipeline<>(source, sink -> stages.apply(element -> {
+            if (predicate.test(element)) {
+                sink.accept(element);
+            }
+        }));
+    }
+
+    public void forEach(Consumer<? super T> action) {
+        // Пред: action != null
+        // Пост: action применен к каждому результату цепочки в порядке источника
+        source.forEach(stages.apply(action));
+    }
+
+    public int count() {
+        // Пред: нет
+        // Пост: возвращено количество результатов цепочки
+        int[] count = new int[1];
+        forEach(element -> count[0]++);
+        return count[0];
+    }
+
+    public Queue<T> toQueue() {
+        // Пред: нет
+        // Пост: возвращена новая ArrayQueue с результатами цепочки в порядке источника
+        return toQueue(ArrayQueue::new);
+    }
+
+    public <Q extends Queue<T>> Q toQueue(Supplier<Q> factory) {
+        // Пред: factory != null
+        // Пост: результаты цепочки добавлены в конец очереди factory.get(), она возвращена
+        Q result = factory.get();
+        forEach(result::enqueue);
+        return result;
+    }
+}
@@ -0,0 +1,70 @@
+package queue;
+
+import java.nio.ByteBuffer;
+
+// Кодирование элемента очереди в запись фиксированного размера.
+// Реализация пишет и читает ровно recordSize() байт начиная с offset и не меняет position/limit буфера.
+public interface RecordCodec<T> {
+    int recordSize();
+
+    void write(ByteBuffer buffer, int offset, T value);
+
+    T read(ByteBuffer buffer, int offset);
+
+    static RecordCodec<Integer> ofInt() {
+        return new RecordCodec<>() {
+            @Override
+            public int recordSize() {
+                return Integer.BYTES;
+            }
+
+            @Override
+            public void write(ByteBuffer buffer, int offset, Integer value) {
+                buffer.putInt(offset, value);
+            }
+
+            @Override
+            public Integer read(ByteBuffer buffer, int offset) {
+                return buffer.getInt(offset);
+            }
+        };
+    }
+
+    static RecordCodec<Long> ofLong() {
+        return new RecordCodec<>() {
+            @Override
+            public int recordSize() {
+                return Long.BYTES;
+            }
+
+            @Override
+            public void write(ByteBuffer buffer, int offset, Long value) {
+                buffer.putLong(offset, value);
+            }
+
+            @Override
+            public Long read(ByteBuffer buffer, int offset) {
+                return buffer.getLong(offset);
+            }
+        };
+    }
+
+    static RecordCodec<Double> ofDouble() {
+        return new RecordCodec<>() {
+            @Override
+            public int recordSize() {
+                return Double.BYTES;
+            }
+
+            @Override
+            public void write(ByteBuffer buffer, int offset, Double value) {
+                buffer.putDouble(offset, value);
+            }
+
+            @Override
+            public Double read(ByteBuffer buffer, int offset) {
+                return buffer.getDouble(offset);
+            }
+        };
+    }
+}
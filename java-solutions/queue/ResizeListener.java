@@ -0,0 +1,19 @@
+package queue;
+
+// Наблюдатель за перераспределением массива кольцевой очереди.
+// Вызывается синхронно в потоке, изменившем очередь, уже после замены массива.
+@FunctionalInterface
+public interface ResizeListener {
+    // Пред: oldCapacity != newCapacity, copied - число перенесенных в новый массив элементов
+    // Пост: событие учтено; очередь не изменяется
+    void onResize(int oldCapacity, int newCapacity, int copied);
+
+    default ResizeListener andThen(ResizeListener next) {
+        // Пред: next != null
+        // Пост: возвращен наблюдатель, передающий событие сначала этому наблюдателю, затем next
+        return (oldCapacity, newCapacity, copied) -> {
+            onResize(oldCapacity, newCapacity, copied);
+            next.onResize(oldCapacity, newCapacity, copied);
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package queue;
+
+import java.util.Arrays;
+
+// Общие операции над кольцевыми буферами ArrayQueue, ArrayQueueADT и ArrayQueueModule.
+// Емкость буфера всегда степень двойки, поэтому индекс приводится в диапазон маской (length - 1) вместо %.
+final class RingBuffers {
+    static final int DEFAULT_CAPACITY = 16;
+    static final int MAX_CAPACITY = 1 << 30;
+
+    private RingBuffers() {
+    }
+
+    static int capacityFor(int requested) {
+        // Пред: requested >= 0
+        // Пост: возвращена минимальная степень двойки, не меньшая max(requested, 1)
+        if (requested < 0 || requested > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Error: incorrect capacity " + requested);
+        }
+        return requested <= 1 ? 1 : Integer.highestOneBit(requested - 1) << 1;
+    }
+
+    static int grownCapacity(int length) {
+        // Пред: length - степень двойки
+        // Пост: возвращена удвоенная емкость
+        if (length >= MAX_CAPACITY) {
+            throw new IllegalStateException("Error: queue capacity overflow");
+        }
+        return length << 1;
+    }
+
+    static int requiredCapacity(int size, int extra) {
+        // Пред: 0 <= size, 0 <= extra
+        // Пост: возвращено size + extra, если оно не превышает MAX_CAPACITY
+        if (extra > MAX_CAPACITY - size) {
+            throw new IllegalStateException("Error: queue capacity overflow");
+        }
+        return size + extra;
+    }
+
+    static int shrunkCapacity(int length, int size, int minCapacity) {
+        // Пред: length - степень двойки, 0 <= size <= length
+        // Пост: возвращена length / 2, если буфер заполнен не более чем на четверть и не опустится ниже minCapacity,
+        //       иначе length. Расширение происходит при полном буфере, сжатие - при четверти, поэтому
+        //       чередование enqueue/dequeue на границе не вызывает постоянных перевыделений
+        if (size <= length >> 2 && length >> 1 >= minCapacity) {
+            return length >> 1;
+        }
+        return length;
+    }
+
+    static void unwrap(Object src, int length, int head, int size, Object dst) {
+        // Пред: src - кольцевой буфер длины length, 0 <= head < length, size <= length, dst вмещает size элементов
+        // Пост: dst[0..size) содержит элементы src в логическом порядке; выполнено не более двух System.arraycopy
+        int first = Math.min(size, length - head);
+        System.arraycopy(src, head, dst, 0, first);
+        System.arraycopy(src, 0, dst, first, size - first);
+    }
+
+    static void wrap(Object src, int count, Object dst, int length, int tail) {
+        // Пред: dst - кольцевой буфер длины length, 0 <= tail < length, в кольце свободно не менее count ячеек
+        // Пост: src[0..count) записан в dst начиная с tail с переходом через границу массива;
+        //       выполнено не более двух System.arraycopy
+        int first = Math.min(count, length - tail);
+        System.arraycopy(src, 0, dst, tail, first);
+        System.arraycopy(src, first, dst, 0, count - first);
+    }
+
+    static void clear(Object[] array, int head, int size) {
+        // Пред: 0 <= head < array.length, size <= array.length
+        // Пост: занятые ячейки кольца обнулены
+        int first = Math.min(size, array.length - head);
+        Arrays.fill(array, head, head + first, null);
+        Arrays.fill(array, 0, size - first, null);
+    }
+}
@@ -0,0 +1,385 @@
+package queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+// Поля производителя и потребителя разнесены по разным строкам кэша через цепочку наследования:
+// JVM размещает поля суперкласса перед полями подкласса, поэтому заполнители между ними не переупорядочиваются.
+abstract class SpscPadding0 {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class SpscProducerFields extends SpscPadding0 {
+    long tail;
+    long cachedHead;
+}
+
+abstract class SpscPadding1 extends SpscProducerFields {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+abstract class SpscConsumerFields extends SpscPadding1 {
+    long head;
+    long cachedTail;
+}
+
+abstract class SpscPadding2 extends SpscConsumerFields {
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+}
+
+// Ограниченная очередь для ровно одного производителя и одного потребителя.
+// Кольцо устроено как в ArrayQueue (степень двойки, индекс по маске), но head и tail монотонно растут
+// и публикуются release-записью без полного барьера; каждая сторона кэширует последнее прочитанное
+// значение чужого индекса и перечитывает его, только когда кэш говорит, что места (элементов) нет.
+//
+// Поток-производитель вызывает offer/enqueue/enqueueAll, поток-потребитель - poll/dequeue/element/
+// dequeueBatch/drainTo/clear. size, peek, get, set, обход и map/filter слабо согласованы;
+// push, remove, replaceAll и removeIf не поддерживаются.
+public class SpscArrayQueue<T> extends SpscPadding2 implements Queue<T> {
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(SpscConsumerFields.class, "head", long.class);
+            TAIL = lookup.findVarHandle(SpscProducerFields.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final T[] buffer;
+    private final int mask;
+
+    // инвариант:
+    //   - buffer.length == mask + 1 - степень двойки
+    //   - head <= tail <= head + buffer.length
+    //   - элементы очереди лежат в позициях [head, tail), позиция p хранится в buffer[p & mask]
+    //   - cachedHead <= head, cachedTail <= tail
+
+    @SuppressWarnings("unchecked")
+    public SpscArrayQueue(int capacity) {
+        // Пред: capacity > 0
+        // Пост: создана пустая очередь емкостью не меньше capacity (округляется до степени двойки)
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Error: capacity <= 0");
+        }
+        buffer = (T[]) new Object[RingBuffers.capacityFor(capacity)];
+        mask = buffer.length - 1;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    public boolean offer(T value) {
+        // Пред: value != null, вызывается потоком-производителем
+        // Пост: если очередь не заполнена, элемент добавлен в конец и возвращено true, иначе false
+        if (value == null) {
+            throw new IllegalArgumentException("Error because value == null");
+        }
+        long position = tail;
+        if (position - cachedHead >= buffer.length) {
+            cachedHead = (long) HEAD.getAcquire(this);
+            if (position - cachedHead >= buffer.length) {
+                return false;
+            }
+        }
+        buffer[(int) position & mask] = value;
+        TAIL.setRelease(this, position + 1);
+        return true;
+    }
+
+    public int offer(T[] values, int from, int count) {
+        // Пред: values != null, values[from..from + count) != null, вызывается потоком-производителем
+        // Пост: добавлено и опубликовано одной release-записью столько элементов values[from..], сколько
+        //       помещается в очередь (не более count); возвращено их количество
+        for (int i = from; i < from + count; i++) {
+            if (values[i] == null) {
+                throw new IllegalArgumentException("Error because value == null");
+            }
+        }
+        long position = tail;
+        if (position + count - cachedHead > buffer.length) {
+            cachedHead = (long) HEAD.getAcquire(this);
+        }
+        int accepted = (int) Math.min(count, buffer.length - (position - cachedHead));
+        int slot = (int) position & mask;
+        int first = Math.min(accepted, buffer.length - slot);
+        System.arraycopy(values, from, buffer, slot, first);
+        System.arraycopy(values, from + first, buffer, 0, accepted - first);
+        TAIL.setRelease(this, position + accepted);
+        return accepted;
+    }
+
+    public T poll() {
+        // Пред: вызывается потоком-потребителем
+        // Пост: если очередь не пуста, первый элемент удален и возвращен, иначе возвращен null
+        long position = head;
+        if (position >= cachedTail) {
+            cachedTail = (long) TAIL.getAcquire(this);
+            if (position >= cachedTail) {
+                return null;
+            }
+        }
+        int slot = (int) position & mask;
+        T value = buffer[slot];
+        buffer[slot] = null;
+        HEAD.setRelease(this, position + 1);
+        return value;
+    }
+
+    @Override
+    public void enqueue(T value) {
+        // Пред: value != null, очередь не заполнена
+        // Пост: элемент добавлен в конец очереди
+        if (!offer(value)) {
+            throw new IllegalStateException("Queue is full");
+        }
+    }
+
+    @Override
+    public void enqueueAll(T[] elements) {
+        // Пред: elements != null, все элементы != null, в очереди есть место для всех элементов
+        // Пост: все элементы добавлены и опубликованы одной release-записью, иначе очередь не изменена
+        long position = tail;
+        if (position + elements.length - (long) HEAD.getAcquire(this) > buffer.length) {
+            throw new IllegalStateException("Queue is full");
+        }
+        offer(elements, 0, elements.length);
+    }
+
+    @Override
+    public void enqueueAll(Iterable<? extends T> elements) {
+        // Пред: elements != null, elements != this, все элементы elements != null
+        // Пост: как у enqueueAll(T[]) для копии elements
+        enqueueAll(AbstractQueue.snapshot(this, elements));
+    }
+
+    @Override
+    public T dequeue() {
+        // Пред: очередь не пуста
+        // Пост: первый элемент удален и возвращен
+        T value = poll();
+        if (value == null) {
+            throw new NoSuchElementException("Queue is empty!");
+        }
+        return value;
+    }
+
+    @Override
+    public int dequeueBatch(T[] target) {
+        // Пред: target != null, вызывается потоком-потребителем
+        // Пост: min(target.length, size) первых элементов удалены и записаны в начало target;
+        //       освобожденные ячейки возвращены производителю одной release-записью
+        long position = head;
+        if (position + target.length > cachedTail) {
+            cachedTail = (long) TAIL.getAcquire(this);
+        }
+        int count = (int) Math.min(target.length, cachedTail - position);
+        int slot = (int) position & mask;
+        RingBuffers.unwrap(buffer, buffer.length, slot, count, target);
+        RingBuffers.clear(buffer, slot, count);
+        HEAD.setRelease(this, position + count);
+        return count;
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> target, int maxElements) {
+        if (maxElements < 0) {
+            throw new IllegalArgumentException("maxElements < 0");
+        }
+        int count = 0;
+        T value;
+        while (count < maxElements && (value = poll()) != null) {
+            target.add(value);
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public T element() {
+        // Пред: очередь не пуста, вызывается потоком-потребителем
+        // Пост: возвращен первый элемент без изменения очереди
+        long position = head;
+        if (position >= cachedTail) {
+            cachedTail = (long) TAIL.getAcquire(this);
+            if (position >= cachedTail) {
+                throw new NoSuchElementException("Queue is empty!");
+            }
+        }
+        return buffer[(int) position & mask];
+    }
+
+    @Override
+    public T peek() {
+        // Пред: очередь не пуста
+        // Пост: возвращен последний элемент (слабо согласованно)
+        T value = fromTail(0);
+        if (value == null) {
+            throw new NoSuchElementException("Queue is empty!");
+        }
+        return value;
+    }
+
+    @Override
+    public T get(int index) {
+        // Пред: 0 <= index < size
+        // Пост: возвращен элемент по индексу (отсчет с хвоста, слабо согласованно)
+        T value = index < 0 ? null : fromTail(index);
+        if (value == null) {
+            throw new IndexOutOfBoundsException("Error: incorrect index value. Beyond the required range (index < 0 || index >= size)");
+        }
+        return value;
+    }
+
+    private T fromTail(int index) {
+        // Пред: index >= 0
+        // Пост: возвращен элемент по индексу с хвоста или null, если в момент чтения такого элемента нет
+        while (true) {
+            long position = (long) TAIL.getAcquire(this) - 1 - index;
+            if (position < (long) HEAD.getAcquire(this)) {
+                return null;
+            }
+            T value = buffer[(int) position & mask];
+            if (stillQueued(position) && value != null) {
+                return value;
+            }
+            // потребитель успел извлечь элемент: индекс считается заново по новым head и tail
+        }
+    }
+
+    private boolean stillQueued(long position) {
+        // Пред: ячейка позиции position только что прочитана
+        // Пост: возвращено true, если позиция еще не извлечена, т.е. прочитанное значение - элемент position,
+        //       или null потребителя, а не элемент следующего круга (производитель пишет в ячейку
+        //       только после того, как head ушел за position)
+        VarHandle.loadLoadFence();
+        return position >= (long) HEAD.getAcquire(this);
+    }
+
+    @Override
+    public void set(int index, T value) {
+        // Пред: value != null, 0 <= index < size, элемент не извлекается параллельно
+        // Пост: элемент по индексу (отсчет с хвоста) заменен на value (слабо согласованно)
+        if (value == null) {
+            throw new IllegalArgumentException("Error because value == null");
+        }
+        long position = (long) TAIL.getAcquire(this) - 1 - index;
+        if (index < 0 || position < (long) HEAD.getAcquire(this)) {
+            throw new IndexOutOfBoundsException("Error: incorrect index value. Beyond the required range (index < 0 || index >= size)");
+        }
+        buffer[(int) position & mask] = value;
+    }
+
+    @Override
+    public void push(T element) {
+        throw new UnsupportedOperationException("push is not supported by a single-producer FIFO queue");
+    }
+
+    @Override
+    public T remove() {
+        throw new UnsupportedOperationException("remove is not supported by a single-producer FIFO queue");
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        throw new UnsupportedOperationException("replaceAll is not supported by a single-producer FIFO queue");
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        throw new UnsupportedOperationException("removeIf is not supported by a single-producer FIFO queue");
+    }
+
+    @Override
+    public int size() {
+        // Пред: нет
+        // Пост: возвращен размер очереди в некоторый момент вызова
+        long currentHead = (long) HEAD.getAcquire(this);
+        long currentTail = (long) TAIL.getAcquire(this);
+        return (int) Math.max(0, Math.min(currentTail - currentHead, buffer.length));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void clear() {
+        // Пред: вызывается потоком-потребителем
+        // Пост: удалены все элементы, опубликованные до начала вызова
+        long position = head;
+        long end = (long) TAIL.getAcquire(this);
+        RingBuffers.clear(buffer, (int) position & mask, (int) (end - position));
+        cachedTail = end;
+        HEAD.setRelease(this, end);
+    }
+
+    @Override
+    public Queue<T> map(Function<? super T, T> foo) {
+        SpscArrayQueue<T> result = new SpscArrayQueue<>(buffer.length);
+        for (T element : this) {
+            result.enqueue(foo.apply(element));
+        }
+        return result;
+    }
+
+    @Override
+    public Queue<T> filter(Predicate<? super T> predicate) {
+        SpscArrayQueue<T> result = new SpscArrayQueue<>(buffer.length);
+        for (T element : this) {
+            if (predicate.test(element)) {
+                result.enqueue(element);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        // Пред: нет
+        // Пост: возвращен слабо согласованный курсор от головы к хвосту; элементы, извлеченные
+        //       во время обхода, пропускаются
+        return new Iterator<>() {
+            private long position = (long) HEAD.getAcquire(SpscArrayQueue.this);
+            private final long end = (long) TAIL.getAcquire(SpscArrayQueue.this);
+            private T next = advance();
+
+            private T advance() {
+                position = Math.max(position, (long) HEAD.getAcquire(SpscArrayQueue.this));
+                while (position < end) {
+                    long current = position++;
+                    T value = buffer[(int) current & mask];
+                    if (stillQueued(current) && value != null) {
+                        return value;
+                    }
+                    position = Math.max(position, (long) HEAD.getAcquire(SpscArrayQueue.this));
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                if (next == null) throw new NoSuchElementException();
+                T value = next;
+                next = advance();
+                return value;
+            }
+        };
+    }
+}
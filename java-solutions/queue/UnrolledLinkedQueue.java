@@ -0,0 +1,366 @@
+package queue;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+public class UnrolledLinkedQueue<T> extends AbstractQueue<T> {
+    private static final int CHUNK_SIZE = 64;
+    private static final int MAX_FREE_CHUNKS = 4;
+
+    private static class Chunk {
+        final Object[] items = new Object[CHUNK_SIZE];
+        Chunk next;
+        Chunk prev;
+    }
+
+    private Chunk headChunk;
+    private Chunk tailChunk;
+    private int headIndex;
+    private int tailIndex;
+    private int size;
+    private int modCount;
+
+    private Chunk free;
+    private int freeCount;
+
+    // Модель: очередь, представляющая собой последовательность элементов, упорядоченных по принципу FIFO,
+    //         хранится в двусвязном списке массивов по CHUNK_SIZE элементов
+    // инвариант:
+    //   - size == 0 <=> headChunk == tailChunk == null
+    //   - элементы лежат в headChunk.items[headIndex..], ..., tailChunk.items[..tailIndex - 1]
+    //   - 0 <= headIndex < CHUNK_SIZE, 0 < tailIndex <= CHUNK_SIZE (если очередь не пуста)
+    //   - свободные ячейки содержат null, элементы не равны null
+    //   - освобожденные блоки (не более MAX_FREE_CHUNKS) переиспользуются через список free
+
+    @Override
+    protected AbstractQueue<T> createInstance() {
+        return new UnrolledLinkedQueue<>();
+    }
+
+    @Override
+    public void enqueue(T element) {
+        // Пред: element != null
+        // Пост: элемент добавлен в конец очереди, size увеличен на 1
+        if (element == null) {
+            throw new IllegalArgumentException("element == null");
+        }
+        if (tailChunk == null) {
+            start(0);
+        } else if (tailIndex == CHUNK_SIZE) {
+            Chunk chunk = allocate();
+            chunk.prev = tailChunk;
+            tailChunk.next = chunk;
+            tailChunk = chunk;
+            tailIndex = 0;
+        }
+        tailChunk.items[tailIndex++] = element;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public void push(T element) {
+        // Пред: element != null
+        // Пост: элемент добавлен в начало очереди, size увеличен на 1
+        if (element == null) {
+            throw new IllegalArgumentException("element == null");
+        }
+        if (headChunk == null) {
+            start(CHUNK_SIZE);
+        } else if (headIndex == 0) {
+            Chunk chunk = allocate();
+            chunk.next = headChunk;
+            headChunk.prev = chunk;
+            headChunk = chunk;
+            headIndex = CHUNK_SIZE;
+        }
+        headChunk.items[--headIndex] = element;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    protected void enqueueFirst(T element) {
+        push(element);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T element() {
+        // Пред: очередь не пуста (size > 0)
+        // Пост: возвращен первый элемент без изменения очереди
+        if (isEmpty()) {
+            throw new NoSuchElementException("Queue is empty");
+        }
+        return (T) headChunk.items[headIndex];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        // Пред: очередь не пуста (size > 0)
+        // Пост: возвращен последний элемент без изменения очереди
+        if (isEmpty()) {
+            throw new NoSuchElementException("Queue is empty");
+        }
+        return (T) tailChunk.items[tailIndex - 1];
+    }
+
+    @Override
+    public T dequeue() {
+        // Пред: очередь не пуста (size > 0)
+        // Пост: первый элемент удален и возвращен, size уменьшен на 1
+        T value = element();
+        headChunk.items[headIndex++] = null;
+        size--;
+        modCount++;
+        if (size == 0) {
+            release(headChunk);
+            headChunk = tailChunk = null;
+        } else if (headIndex == CHUNK_SIZE) {
+            Chunk drained = headChunk;
+            headChunk = drained.next;
+            headChunk.prev = null;
+            headIndex = 0;
+            release(drained);
+        }
+        return value;
+    }
+
+    @Override
+    protected void dequeueLast() {
+        // Пред: очередь не пуста (size > 0)
+        // Пост: последний элемент удален, size уменьшен на 1
+        if (isEmpty()) {
+            throw new NoSuchElementException("Queue is empty");
+        }
+        tailChunk.items[--tailIndex] = null;
+        size--;
+        modCount++;
+        if (size == 0) {
+            release(tailChunk);
+            headChunk = tailChunk = null;
+        } else if (tailIndex == 0) {
+            Chunk drained = tailChunk;
+            tailChunk = drained.prev;
+            tailChunk.next = null;
+            tailIndex = CHUNK_SIZE;
+            release(drained);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected T elementAt(int index) {
+        return (T) chunkOf(index).items[(headIndex + index) % CHUNK_SIZE];
+    }
+
+    @Override
+    protected void updateElement(int index, T value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null");
+        }
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Invalid index");
+        }
+        chunkOf(index).items[(headIndex + index) % CHUNK_SIZE] = value;
+    }
+
+    private Chunk chunkOf(int index) {
+        // Пред: 0 <= index < size
+        // Пост: возвращен блок с элементом index (позиция в блоке — (headIndex + index) % CHUNK_SIZE);
+        //       обход идет с ближайшего конца
+        if (index < size / 2) {
+            Chunk chunk = headChunk;
+            int position = headIndex + index;
+            while (position >= CHUNK_SIZE) {
+                chunk = chunk.next;
+                position -= CHUNK_SIZE;
+            }
+            return chunk;
+        }
+        Chunk chunk = tailChunk;
+        int position = tailIndex - size + index;
+        while (position < 0) {
+            chunk = chunk.prev;
+            position += CHUNK_SIZE;
+        }
+        return chunk;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void replaceAll(UnaryOperator<T> operator) {
+        // Пред: operator != null, operator не возвращает null
+        // Пост: каждый элемент e заменен на operator(e) на месте за один проход по блокам
+        modCount++;
+        Chunk chunk = headChunk;
+        int position = headIndex;
+        for (int remaining = size; remaining > 0; remaining--) {
+            if (position == CHUNK_SIZE) {
+                chunk = chunk.next;
+                position = 0;
+            }
+            T value = operator.apply((T) chunk.items[position]);
+            if (value == null) {
+                throw new IllegalArgumentException("Value cannot be null");
+            }
+            chunk.items[position++] = value;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean removeIf(Predicate<? super T> filter) {
+        // Пред: filter != null
+        // Пост: элементы, удовлетворяющие filter, удалены одним проходом уплотнения по блокам,
+        //       порядок остальных сохранен, опустевшие блоки в конце освобождены;
+        //       возвращено true, если что-то удалено. Если filter выбросил исключение,
+        //       непроверенные элементы сохраняются
+        int before = size;
+        Chunk read = headChunk;
+        int readIndex = headIndex;
+        Chunk write = headChunk;
+        int writeIndex = headIndex;
+        int kept = 0;
+        int remaining = size;
+        // инвариант: элементы, оставленные из просмотренных, лежат от (headChunk, headIndex) до (write, writeIndex),
+        //            непросмотренные - от (read, readIndex); запись не обгоняет чтение
+        try {
+            for (; remaining > 0; remaining--) {
+                if (readIndex == CHUNK_SIZE) {
+                    read = read.next;
+                    readIndex = 0;
+                }
+                Object element = read.items[readIndex];
+                if (!filter.test((T) element)) {
+                    if (writeIndex == CHUNK_SIZE) {
+                        write = write.next;
+                        writeIndex = 0;
+                    }
+                    write.items[writeIndex++] = element;
+                    kept++;
+                }
+                readIndex++;
+            }
+        } finally {
+            for (; remaining > 0; remaining--) {
+                if (readIndex == CHUNK_SIZE) {
+                    read = read.next;
+                    readIndex = 0;
+                }
+                if (writeIndex == CHUNK_SIZE) {
+                    write = write.next;
+                    writeIndex = 0;
+                }
+                write.items[writeIndex++] = read.items[readIndex++];
+                kept++;
+            }
+            truncate(write, writeIndex, kept);
+        }
+        return size != before;
+    }
+
+    private void truncate(Chunk last, int lastIndex, int kept) {
+        // Пред: первые kept элементов очереди уплотнены и заканчиваются в last.items[lastIndex - 1]
+        // Пост: очередь состоит из этих kept элементов; ячейки и блоки за ними очищены и освобождены
+        if (kept == 0) {
+            clear();
+            return;
+        }
+        Arrays.fill(last.items, lastIndex, CHUNK_SIZE, null);
+        Chunk chunk = last.next;
+        while (chunk != null) {
+            Chunk next = chunk.next;
+            Arrays.fill(chunk.items, null);
+            release(chunk);
+            chunk = next;
+        }
+        last.next = null;
+        tailChunk = last;
+        tailIndex = lastIndex;
+        size = kept;
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        // Пред: нет
+        // Пост: очередь очищена, блоки возвращены в список свободных
+        Chunk chunk = headChunk;
+        while (chunk != null) {
+            Chunk next = chunk.next;
+            Arrays.fill(chunk.items, null);
+            release(chunk);
+            chunk = next;
+        }
+        headChunk = tailChunk = null;
+        headIndex = tailIndex = size = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private Chunk chunk = headChunk;
+            private int position = headIndex;
+            private int remaining = size;
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
+                if (!hasNext()) throw new NoSuchElementException();
+                if (position == CHUNK_SIZE) {
+                    chunk = chunk.next;
+                    position = 0;
+                }
+                remaining--;
+                return (T) chunk.items[position++];
+            }
+        };
+    }
+
+    private void start(int index) {
+        headChunk = tailChunk = allocate();
+        headIndex = tailIndex = index;
+    }
+
+    private Chunk allocate() {
+        if (free == null) {
+            return new Chunk();
+        }
+        Chunk chunk = free;
+        free = chunk.next;
+        chunk.next = null;
+        freeCount--;
+        return chunk;
+    }
+
+    private void release(Chunk chunk) {
+        // Пред: все ячейки chunk равны null
+        // Пост: chunk помещен в список свободных, если он не переполнен
+        chunk.prev = null;
+        chunk.next = null;
+        if (freeCount < MAX_FREE_CHUNKS) {
+            chunk.next = free;
+            free = chunk;
+            freeCount++;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// Двусторонняя очередь Чейза-Лева для планировщика с перехватом задач.
+// Поток-владелец добавляет и забирает элементы с нижнего конца (push/pop) без CAS, кроме случая,
+// когда остается последний элемент; остальные потоки забирают элементы с верхнего конца (steal) через CAS
+// над top. Кольцо растет вдвое, когда заполнено; рост выполняет только владелец, а старый массив
+// остается корректным для потоков, еще читающих его.
+//
+// Как и в исходном алгоритме, ячейки после извлечения не очищаются: очистка ячейки потоком, забравшим
+// элемент, гонится с записью владельца в ту же ячейку после оборота кольца. Ссылка живет до перезаписи.
+public class WorkStealingDeque<T> {
+    private static final VarHandle TOP;
+    private static final VarHandle BOTTOM;
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TOP = lookup.findVarHandle(WorkStealingDeque.class, "top", long.class);
+            BOTTOM = lookup.findVarHandle(WorkStealingDeque.class, "bottom", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long top;
+    private volatile long bottom;
+    private volatile Object[] array;
+
+    // инвариант:
+    //   - array.length - степень двойки
+    //   - элементы лежат в позициях [top, bottom), позиция p хранится в array[p & (array.length - 1)]
+    //   - top только растет; bottom изменяет только владелец
+    //   - top <= bottom, кроме короткого окна внутри pop, когда bottom == top - 1
+
+    public WorkStealingDeque() {
+        // Пред: нет
+        // Пост: создана пустая очередь с начальной емкостью DEFAULT_CAPACITY
+        this(RingBuffers.DEFAULT_CAPACITY);
+    }
+
+    public WorkStealingDeque(int initialCapacity) {
+        // Пред: initialCapacity >= 0
+        // Пост: создана пустая очередь с емкостью не меньше initialCapacity
+        array = new Object[RingBuffers.capacityFor(initialCapacity)];
+    }
+
+    public void push(T value) {
+        // Пред: value != null, вызывается владельцем
+        // Пост: элемент добавлен в нижний конец и опубликован для pop и steal
+        if (value == null) {
+            throw new IllegalArgumentException("Error because value == null");
+        }
+        long b = (long) BOTTOM.getOpaque(this);
+        long t = (long) TOP.getAcquire(this);
+        Object[] a = array;
+        if (b - t >= a.length) {
+            a = grow(a, t, b);
+        }
+        SLOT.setRelease(a, (int) b & (a.length - 1), value);
+        BOTTOM.setRelease(this, b + 1);
+    }
+
+    private Object[] grow(Object[] old, long t, long b) {
+        // Пред: вызывается владельцем, [t, b) - элементы очереди в old
+        // Пост: элементы скопированы на те же позиции массива вдвое большей длины, он опубликован
+        Object[] grown = new Object[RingBuffers.grownCapacity(old.length)];
+        for (long p = t; p < b; p++) {
+            grown[(int) p & (grown.length - 1)] = old[(int) p & (old.length - 1)];
+        }
+        array = grown;
+        return grown;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T pop() {
+        // Пред: вызывается владельцем
+        // Пост: если очередь не пуста, элемент с нижнего конца удален и возвращен (LIFO), иначе null
+        long b = (long) BOTTOM.getOpaque(this) - 1;
+        Object[] a = array;
+        // Полный барьер между записью bottom и чтением top: иначе вор и владелец могут оба забрать
+        // последний элемент.
+        bottom = b;
+        long t = top;
+        if (t > b) {
+            bottom = b + 1;
+            return null;
+        }
+        T value = (T) SLOT.getAcquire(a, (int) b & (a.length - 1));
+        if (t == b) {
+            // Последний элемент: владелец соревнуется с ворами через тот же CAS над top
+            if (!TOP.compareAndSet(this, t, t + 1)) {
+                value = null;
+            }
+            bottom = b + 1;
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T steal() {
+        // Пред: нет
+        // Пост: если очередь не пуста и гонка не проиграна, элемент с верхнего конца удален и возвращен
+        //       (FIFO относительно push), иначе null
+        long t = top;
+        long b = bottom;
+        if (t >= b) {
+            return null;
+        }
+        Object[] a = array;
+        T value = (T) SLOT.getAcquire(a, (int) t & (a.length - 1));
+        return TOP.compareAndSet(this, t, t + 1) ? value : null;
+    }
+
+    public int size() {
+        // Пред: нет
+        // Пост: возвращен размер очереди в некоторый момент вызова (слабо согласованно)
+        long t = top;
+        long b = bottom;
+        return (int) Math.max(0, b - t);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return array.length;
+    }
+}
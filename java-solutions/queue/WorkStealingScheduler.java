@@ -0,0 +1,236 @@
+package queue;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Пул потоков с перехватом задач. У каждого рабочего потока своя WorkStealingDeque: задачи,
+// отправленные из рабочего потока, кладутся в его очередь и выполняются им же в порядке LIFO
+// (свежие данные еще в кэше), а простаивающие потоки забирают самые старые задачи чужих очередей.
+// Задачи извне пула попадают в общую ConcurrentArrayQueue.
+// Рабочий поток без задач несколько раз обходит чужие очереди, затем засыпает до отправки новой задачи
+// или остановки; таймаут сна - лишь страховка, простаивающий пул не просыпается сам по себе.
+public class WorkStealingScheduler implements Executor, AutoCloseable {
+    private static final int STEAL_ATTEMPTS = 64;
+    private static final long PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Worker[] workers;
+    private final ConcurrentArrayQueue<Runnable> injected;
+    private final LongAdder steals = new LongAdder();
+    private final ThreadLocal<Worker> currentWorker = new ThreadLocal<>();
+    private volatile boolean shutdown;
+
+    // инвариант: после shutdown новые задачи не принимаются, уже принятые выполняются
+
+    public WorkStealingScheduler(int parallelism) {
+        // Пред: parallelism > 0
+        // Пост: запущено parallelism рабочих потоков, общая очередь вмещает не меньше 1024 задач
+        this(parallelism, 1024);
+    }
+
+    public WorkStealingScheduler(int parallelism, int injectionCapacity) {
+        // Пред: parallelism > 0, injectionCapacity > 0
+        // Пост: запущено parallelism рабочих потоков
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Error: parallelism <= 0");
+        }
+        injected = new ConcurrentArrayQueue<>(injectionCapacity);
+        workers = new Worker[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            workers[i] = new Worker(i);
+        }
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        // Пред: task != null, планировщик не остановлен
+        // Пост: задача принята и будет выполнена одним из рабочих потоков;
+        //       если общая очередь заполнена, бросается RejectedExecutionException
+        if (task == null) {
+            throw new IllegalArgumentException("Error because task == null");
+        }
+        if (shutdown) {
+            throw new RejectedExecutionException("Scheduler is shut down");
+        }
+        Worker current = currentWorker.get();
+        if (current != null) {
+            // Рабочий поток не завершится, пока его очередь не пуста
+            current.deque.push(task);
+        } else {
+            if (!injected.offer(task)) {
+                throw new RejectedExecutionException("Injection queue is full");
+            }
+            // shutdown мог произойти между проверкой флага и offer: рабочие потоки могли уже выйти,
+            // не увидев задачу. Тогда ее нужно забрать обратно; если забрать не удалось, ее уже взял рабочий
+            if (shutdown && injected.removeIf(queued -> queued == task)) {
+                throw new RejectedExecutionException("Scheduler is shut down");
+            }
+        }
+        wakeOne();
+    }
+
+    private void wakeOne() {
+        // WorkStealingDeque.push публикует задачу release-записью; полный барьер не дает чтению parked
+        // обогнать ее (иначе поток мог бы уснуть, не увидев задачу, а мы - не увидеть его сна)
+        VarHandle.fullFence();
+        for (Worker worker : workers) {
+            if (worker.parked) {
+                LockSupport.unpark(worker.thread);
+                return;
+            }
+        }
+    }
+
+    public long stealCount() {
+        // Пред: нет
+        // Пост: возвращено число задач, забранных из чужих очередей
+        return steals.sum();
+    }
+
+    public int parallelism() {
+        return workers.length;
+    }
+
+    public void shutdown() {
+        // Пред: нет
+        // Пост: новые задачи не принимаются; рабочие потоки завершатся, выполнив уже принятые
+        shutdown = true;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker.thread);
+        }
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        // Пред: нет
+        // Пост: возвращено true, если все рабочие потоки завершились за timeout
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Worker worker : workers) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedJoin(worker.thread, remaining);
+            if (worker.thread.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        // Пред: вызывается не из рабочего потока
+        // Пост: планировщик остановлен, все принятые задачи выполнены;
+        //       если ожидание прервано, флаг прерывания восстановлен и метод возвращается без ожидания
+        shutdown();
+        try {
+            for (Worker worker : workers) {
+                worker.thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private final WorkStealingDeque<Runnable> deque = new WorkStealingDeque<>();
+        private final Thread thread;
+        private volatile boolean parked;
+
+        private Worker(int index) {
+            thread = new Thread(this, "work-stealing-" + index);
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            currentWorker.set(this);
+            while (true) {
+                Runnable task = findTask();
+                if (task != null) {
+                    runTask(task);
+                } else if (shutdown) {
+                    // Повторная проверка после shutdown: задачу могли добавить между findTask и чтением флага
+                    task = findTask();
+                    if (task == null) {
+                        return;
+                    }
+                    runTask(task);
+                } else {
+                    park();
+                }
+            }
+        }
+
+        private Runnable findTask() {
+            Runnable task = deque.pop();
+            if (task != null) {
+                return task;
+            }
+            task = injected.poll();
+            if (task != null) {
+                return task;
+            }
+            return steal();
+        }
+
+        private Runnable steal() {
+            // Пред: нет
+            // Пост: возвращена задача, забранная из чужой очереди, или null, если за STEAL_ATTEMPTS
+            //       попыток со случайных жертв ничего не найдено
+            if (workers.length == 1) {
+                return null;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int attempt = 0; attempt < STEAL_ATTEMPTS; attempt++) {
+                Worker victim = workers[random.nextInt(workers.length)];
+                if (victim != this) {
+                    Runnable task = victim.deque.steal();
+                    if (task != null) {
+                        steals.increment();
+                        return task;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private void park() {
+            // Флаг ставится до повторной проверки всех источников: обе стороны пишут и читают volatile-поля,
+            // поэтому либо execute после добавления задачи увидит parked и разбудит поток, либо поток увидит
+            // задачу и не уснет. Таймаут - только страховка
+            parked = true;
+            if (!hasWork() && !shutdown) {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+            parked = false;
+        }
+
+        private boolean hasWork() {
+            if (!injected.isEmpty()) {
+                return true;
+            }
+            for (Worker worker : workers) {
+                if (!worker.deque.isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void runTask(Runnable task) {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+    }
+}
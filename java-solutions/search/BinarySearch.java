@@ -1,5 +1,7 @@
 package search;
 
+import java.util.Arrays;
+
 public class BinarySearch {
 
     // Предусловие:
@@ -71,12 +73,143 @@ public class BinarySearch {
     // Переход: каждая рекурсивная ветка уменьшает диапазон поиска.
     // Завершение: рекурсия завершается, когда left == right, что соответствует требуемому индексу.
 
+    // Число поисков, которые batchSearch ведет одновременно: их обращения к памяти независимы,
+    // поэтому процессор ожидает промахи кэша параллельно, а не по очереди.
+    private static final int BATCH_LANES = 16;
+
+    // Во сколько раз массив может быть длиннее пакета отсортированных запросов,
+    // чтобы линейный проход слиянием все еще был дешевле отдельных спусков.
+    private static final int SWEEP_RATIO = 8;
+
+    // Предусловие:
+    // 1. Массив a отсортирован по невозрастанию, a != null
+    // 2. queries != null, results != null, results.length >= queries.length
+    // Постусловие:
+    // 1. Для всех j: results[j] - минимальный индекс i, при котором a[i] <= queries[j], либо a.length
+    // 2. a и queries не изменены
+    public static void batchSearch(int[] queries, int[] a, int[] results) {
+        if (results.length < queries.length) {
+            throw new IllegalArgumentException("Error: results.length < queries.length");
+        }
+        if (a.length == 0) {
+            for (int j = 0; j < queries.length; j++) {
+                results[j] = 0;
+            }
+            return;
+        }
+        if (a.length / SWEEP_RATIO <= queries.length) {
+            if (isSorted(queries, -1)) {
+                sweepDescending(queries, a, results);
+                return;
+            }
+            if (isSorted(queries, 1)) {
+                sweepAscending(queries, a, results);
+                return;
+            }
+        }
+        int[] base = new int[BATCH_LANES];
+        for (int from = 0; from < queries.length; from += BATCH_LANES) {
+            interleavedSearch(queries, from, Math.min(BATCH_LANES, queries.length - from), a, results, base);
+        }
+    }
+
+    // Предусловие: q != null, direction == 1 или direction == -1
+    // Постусловие: возвращено true, если q упорядочен по неубыванию (direction == 1)
+    //              или по невозрастанию (direction == -1)
+    private static boolean isSorted(int[] q, int direction) {
+        for (int j = 1; j < q.length; j++) {
+            if (Integer.compare(q[j], q[j - 1]) == -direction) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Предусловие: a.length > 0, 0 <= from, from + count <= queries.length, count <= base.length
+    // Постусловие: results[from..from + count) заполнены, как в batchSearch; base используется как буфер
+    // Доказательство корректности:
+    // Для каждой дорожки j ведется спуск без ветвлений по предикату a[i] > x, истинному на префиксе a.
+    // инвариант: a[base[j] - 1] > x (если base[j] > 0), и ответ лежит в [base[j], base[j] + len]
+    // Переход: len уменьшается до len - len / 2, base[j] сдвигается на half, только если a[base + half] > x.
+    // Завершение: при len == 1 ответ - base[j] или base[j] + 1 в зависимости от a[base[j]] > x.
+    // Все дорожки проходят одинаковую последовательность len, поэтому идут в ногу.
+    private static void interleavedSearch(int[] queries, int from, int count, int[] a, int[] results, int[] base) {
+        Arrays.fill(base, 0, count, 0);
+        int len = a.length;
+        while (len > 1) {
+            int half = len >>> 1;
+            for (int j = 0; j < count; j++) {
+                // a[base + half] > x <=> x - a[base + half] < 0: маска из знакового бита
+                int greater = (int) (((long) queries[from + j] - a[base[j] + half]) >> 63);
+                base[j] += half & greater;
+            }
+            len -= half;
+        }
+        for (int j = 0; j < count; j++) {
+            results[from + j] = base[j] + (int) (((long) queries[from + j] - a[base[j]]) >>> 63);
+        }
+    }
+
+    // Предусловие: a.length > 0, queries упорядочен по невозрастанию
+    // Постусловие: results[0..queries.length) заполнены, как в batchSearch, за O(a.length + queries.length)
+    // Доказательство: ответ не убывает при убывании x, поэтому указатель i только движется вправо.
+    private static void sweepDescending(int[] queries, int[] a, int[] results) {
+        int i = 0;
+        for (int j = 0; j < queries.length; j++) {
+            // инвариант: a[0..i) > queries[j]
+            while (i < a.length && a[i] > queries[j]) {
+                i++;
+            }
+            results[j] = i;
+        }
+    }
+
+    // Предусловие: a.length > 0, queries упорядочен по неубыванию
+    // Постусловие: results[0..queries.length) заполнены, как в batchSearch, за O(a.length + queries.length)
+    // Доказательство: ответ не возрастает при возрастании x, поэтому указатель i только движется влево.
+    private static void sweepAscending(int[] queries, int[] a, int[] results) {
+        int i = a.length;
+        for (int j = 0; j < queries.length; j++) {
+            // инвариант: a[i..a.length) <= queries[j]
+            while (i > 0 && a[i - 1] <= queries[j]) {
+                i--;
+            }
+            results[j] = i;
+        }
+    }
+
+    // Предусловие:
+    // 1. a != null, элементы a отсортированы по невозрастанию
+    // 2. x - целое число
+    // Постусловие:
+    // 1. Возвращает минимальный индекс i, при котором a.get(i) <= x
+    // 2. Если такого i нет, возвращает a.length()
+    // Доказательство корректности - как у iterativeBinarySearch: инвариант тот же, индексы long.
+    public static long iterativeBinarySearch(int x, MappedIntArray a) {
+        long left = 0, right = a.length();
+        // инвариант: a[left - 1] > x (если left > 0) и a[right] <= x (если right < a.length())
+        while (left < right) {
+            long mid = left + (right - left) / 2;
+            if (a.get(mid) > x) {
+                left = mid + 1;
+            } else {
+                right = mid;
+            }
+        }
+        return left;
+    }
+
     // :NOTE: what is args
     public static void main(String[] args) {
         // Предусловия для args:
         // 1. args != null
-        // 3. Все элементы args[0] и args[1..] — целые числа
-        // 4. Массив a (args[1..]) отсортирован по невозрастанию
+        // 2. либо args = --mapped <файл массива> [<файл запросов>] (см. SearchCli),
+        // 3. либо все элементы args[0] и args[1..] — целые числа,
+        // 4. и массив a (args[1..]) отсортирован по невозрастанию
+        if (args.length > 0 && SearchCli.MAPPED.equals(args[0])) {
+            SearchCli.main(args, "search.BinarySearch", a -> x -> iterativeBinarySearch(x, a));
+            return;
+        }
         int x = Integer.parseInt(args[0]);
         int[] a = new int[args.length - 1];
         for (int i = 0; i < a.length; i++) {
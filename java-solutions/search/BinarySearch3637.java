@@ -44,7 +44,7 @@ public class BinarySearch3637 {
     // 1. Алгоритм проходит по массиву один раз, сравнивая соседние элементы.
     // 2. Если обнаружен переход от убывания к возрастанию, возвращается соответствующий индекс.
     // 3. Если перехода нет, возвращается 0, что корректно для полностью убывающего массива.
-    private static int findBreakpoint(int[] a) {
+    public static int findBreakpoint(int[] a) {
         int left = 0, right = a.length - 1;
         while (left < right) {
             int mid = left + (right - left) / 2;
@@ -127,12 +127,81 @@ public class BinarySearch3637 {
         }
     }
 
+    // Предусловие: a != null && a.length() > 0, a - строго убывающий массив, за которым идет строго возрастающий
+    // Постусловие: возвращает индекс первого вхождения x в a или -1, если x не найден
+    public static long search(int x, MappedIntArray a) {
+        return search(x, a, findBreakpoint(a));
+    }
+
+    // Предусловие: a != null && a.length() > 0, breakpoint == findBreakpoint(a)
+    // Постусловие: возвращает индекс первого вхождения x в a или -1, если x не найден
+    // Доказательство корректности:
+    // 1. Части a[0..leftEnd) и a[leftEnd..a.length()) строго монотонны, поэтому x может стоять в каждой
+    //    из них только на минимальном индексе, где a[i] <= x (соответственно a[i] >= x).
+    // 2. Левая часть проверяется первой, поэтому возвращается первое вхождение;
+    //    при breakpoint == 0 правой части нет.
+    static long search(int x, MappedIntArray a, long breakpoint) {
+        long leftEnd = breakpoint == 0 ? a.length() : breakpoint;
+        long left = 0, right = leftEnd;
+        // инвариант: a[0..left) > x, a[right..leftEnd) <= x
+        while (left < right) {
+            long mid = left + (right - left) / 2;
+            if (a.get(mid) > x) {
+                left = mid + 1;
+            } else {
+                right = mid;
+            }
+        }
+        if (left < leftEnd && a.get(left) == x) {
+            return left;
+        }
+        left = leftEnd;
+        right = a.length();
+        // инвариант: a[leftEnd..left) < x, a[right..a.length()) >= x
+        while (left < right) {
+            long mid = left + (right - left) / 2;
+            if (a.get(mid) < x) {
+                left = mid + 1;
+            } else {
+                right = mid;
+            }
+        }
+        return left < a.length() && a.get(left) == x ? left : -1;
+    }
+
+    // Предусловие: a != null && a.length() > 0
+    // Постусловие: то же, что у findBreakpoint(int[]): 0, если a убывает целиком, иначе индекс за минимумом
+    public static long findBreakpoint(MappedIntArray a) {
+        long left = 0, right = a.length() - 1;
+        while (left < right) {
+            long mid = left + (right - left) / 2;
+            if (a.get(mid) < a.get(mid + 1)) {
+                right = mid;
+            } else {
+                left = mid + 1;
+            }
+        }
+        return left == a.length() - 1 ? 0 : left + 1;
+    }
+
     public static void main(String[] args) {
         // Предусловия для args:
         // 1. args != null 
-        // 2. args.length >= 2 (x и как минимум один элемент массива a)
+        // 2. args = --mapped <файл массива> [<файл запросов>] (см. SearchCli),
+        //    либо args.length >= 2 (x и как минимум один элемент массива a)
         // 3. Все элементы args[0] и args[1..] — целые числа
         // 4. Массив a (args[1..]) отсортирован по невозрастанию до findBreakpoint, а после по возрастанию (или 0)
+        if (args.length > 0 && SearchCli.MAPPED.equals(args[0])) {
+            SearchCli.main(args, "search.BinarySearch3637", a -> {
+                if (a.length() == 0) {
+                    return x -> -1;
+                }
+                // Точка излома ищется один раз на все запросы
+                long breakpoint = findBreakpoint(a);
+                return x -> search(x, a, breakpoint);
+            });
+            return;
+        }
         if (args.length < 2) {
             System.err.println("Usage: java search.BinarySearch3637 x a1 a2 ... an");
             return;
@@ -0,0 +1,75 @@
+package search;
+
+// Индекс для многократного поиска в массиве из BinarySearch3637: строго убывающая часть,
+// за которой идет строго возрастающая. Точка излома ищется один раз при построении, каждая часть
+// хранится в EytzingerIndex (возрастающая - в обратном порядке, чтобы тоже стать убывающей),
+// поэтому запрос - не более двух спусков без ветвлений и без рекурсии.
+// Объект неизменяем после построения, и firstIndexOf можно вызывать из любого числа потоков.
+public class BitonicIndex {
+    private final int[] a;
+    private final int leftEnd;
+    private final EytzingerIndex descending;
+    private final EytzingerIndex ascending;
+
+    // инвариант:
+    // 1. a[0..leftEnd) строго убывает, a[leftEnd..a.length) строго возрастает
+    // 2. descending построен над a[0..leftEnd), ascending - над a[leftEnd..a.length) в обратном порядке
+
+    // Предусловие: a != null, a - строго убывающий массив, за которым идет строго возрастающий
+    //              (любая из частей может быть пустой)
+    // Постусловие: построен индекс над копией a
+    public BitonicIndex(int[] a) {
+        this.a = a.clone();
+        // Пост для findBreakpoint: 0, если a убывает целиком, иначе индекс, следующий за минимумом
+        int breakpoint = a.length == 0 ? 0 : BinarySearch3637.findBreakpoint(a);
+        leftEnd = breakpoint == 0 ? a.length : breakpoint;
+
+        int[] left = new int[leftEnd];
+        System.arraycopy(a, 0, left, 0, leftEnd);
+        int[] right = new int[a.length - leftEnd];
+        for (int i = 0; i < right.length; i++) {
+            right[i] = a[a.length - 1 - i];
+        }
+        descending = new EytzingerIndex(left);
+        ascending = new EytzingerIndex(right);
+    }
+
+    // Предусловие: x - целое число
+    // Постусловие: возвращает индекс первого вхождения x в a или -1, если x не входит в a
+    // Доказательство корректности:
+    // 1. В убывающей части минимальный i с a[i] <= x - единственный кандидат на a[i] == x.
+    // 2. Возрастающая часть, развернутая в убывающую, проверяется так же; индекс j в развернутой
+    //    части соответствует a.length - 1 - j.
+    // 3. Левая часть проверяется первой, поэтому при вхождении x в обе части возвращается меньший индекс.
+    public int firstIndexOf(int x) {
+        int i = descending.search(x);
+        if (i < leftEnd && a[i] == x) {
+            return i;
+        }
+        int j = ascending.search(x);
+        if (j < a.length - leftEnd && a[a.length - 1 - j] == x) {
+            return a.length - 1 - j;
+        }
+        return -1;
+    }
+
+    // Предусловие: queries != null, results != null, results.length >= queries.length
+    // Постусловие: для всех j: results[j] == firstIndexOf(queries[j])
+    public void firstIndexOf(int[] queries, int[] results) {
+        if (results.length < queries.length) {
+            throw new IllegalArgumentException("Error: results.length < queries.length");
+        }
+        for (int j = 0; j < queries.length; j++) {
+            results[j] = firstIndexOf(queries[j]);
+        }
+    }
+
+    // Постусловие: возвращает индекс начала возрастающей части (a.length, если ее нет)
+    public int breakpoint() {
+        return leftEnd;
+    }
+
+    public int size() {
+        return a.length;
+    }
+}
@@ -0,0 +1,68 @@
+package search;
+
+// Поисковый индекс над массивом, отсортированным по невозрастанию, в порядке Эйтцингера
+// (обход дерева поиска в ширину): корень в ячейке 1, потомки ячейки k - в ячейках 2k и 2k + 1.
+// Первые уровни дерева лежат в нескольких соседних строках кэша, и спуск читает память в предсказуемом
+// порядке, а сравнение превращается в арифметику над индексом без условного перехода.
+// Индекс строится один раз за O(n) и отвечает на запрос за O(log n) так же, как
+// BinarySearch.iterativeBinarySearch: минимальный i, при котором a[i] <= x, либо a.length.
+public class EytzingerIndex {
+    private final int[] tree;
+    private final int[] position;
+    private final int n;
+
+    // инвариант:
+    // 1. tree.length == position.length == n + 1, ячейка 0 не используется
+    // 2. обход дерева tree[1..n] в симметричном порядке дает исходный массив a[0..n-1]
+    // 3. position[k] - индекс в a элемента tree[k]
+    // Номера узлов при спуске - long: при n >= 2^30 номер потомка 2k + 1 не помещается в int
+
+    // Предусловие:
+    // 1. a != null
+    // 2. Массив a отсортирован по невозрастанию: для всех i: 0 <= i < a.length - 1 -> a[i] >= a[i + 1]
+    // Постусловие: построен индекс над копией a; дальнейшие изменения a на него не влияют
+    public EytzingerIndex(int[] a) {
+        if (a.length == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Error: array is too large for an index (length == Integer.MAX_VALUE)");
+        }
+        n = a.length;
+        tree = new int[n + 1];
+        position = new int[n + 1];
+        build(a, 0, 1);
+    }
+
+    // Предусловие: next - число уже размещенных элементов a, 1 <= k
+    // Постусловие: элементы a[next..next + s) размещены в поддереве k в симметричном порядке,
+    //              где s - размер поддерева k; возвращено next + s
+    private int build(int[] a, int next, long k) {
+        if (k <= n) {
+            next = build(a, next, 2 * k);
+            tree[(int) k] = a[next];
+            position[(int) k] = next++;
+            next = build(a, next, 2 * k + 1);
+        }
+        return next;
+    }
+
+    // Предусловие: x - целое число
+    // Постусловие:
+    // 1. Возвращает минимальный индекс i, при котором a[i] <= x
+    // 2. Если такого i нет, возвращает a.length
+    public int search(int x) {
+        long k = 1;
+        // инвариант: все элементы, лежащие в симметричном порядке до поддерева k и отсеянные переходом
+        //            вправо, больше x; последний переход влево был из узла-кандидата с tree[k] <= x
+        while (k <= n) {
+            // (x - tree[k]) < 0 <=> tree[k] > x: сдвиг знакового бита дает 1 (идем вправо) или 0 (влево)
+            k = 2 * k + (((long) x - tree[(int) k]) >>> 63);
+        }
+        // Путь к k записан в битах k: убираем хвост из переходов вправо и последний переход влево,
+        // получая последний узел, из которого спуск ушел влево, - первый элемент <= x (0, если его нет)
+        k >>>= Long.numberOfTrailingZeros(~k) + 1;
+        return k == 0 ? n : position[(int) k];
+    }
+
+    public int size() {
+        return n;
+    }
+}
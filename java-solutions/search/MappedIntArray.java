@@ -0,0 +1,54 @@
+package search;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Массив int, отображенный из файла: little-endian значения подряд, без заголовка.
+// Файл отображается сегментами по 2^SEGMENT_SHIFT элементов (один MappedByteBuffer адресует меньше 2 ГБ),
+// поэтому длина массива - long и ограничена только размером файла. Данные не копируются в кучу:
+// страницы подгружаются ОС при первом обращении. Отображение только для чтения и живет, пока жив объект.
+public final class MappedIntArray {
+    private static final int SEGMENT_SHIFT = 28;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final MappedByteBuffer[] segments;
+    private final long length;
+
+    // инвариант: элемент с индексом i лежит в segments[i >>> SEGMENT_SHIFT] по смещению 4 * (i & SEGMENT_MASK)
+
+    // Предусловие: file - существующий файл, размер которого кратен 4
+    // Постусловие: файл отображен целиком, length() == размер файла / 4
+    public MappedIntArray(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            if (bytes % Integer.BYTES != 0) {
+                throw new IllegalArgumentException("file size is not a multiple of 4: " + file);
+            }
+            length = bytes / Integer.BYTES;
+            segments = new MappedByteBuffer[(int) ((length + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+            for (int s = 0; s < segments.length; s++) {
+                long from = (long) s << SEGMENT_SHIFT;
+                long count = Math.min(SEGMENT_MASK + 1, length - from);
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, from * Integer.BYTES, count * Integer.BYTES);
+                segments[s].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+    }
+
+    public long length() {
+        return length;
+    }
+
+    // Предусловие: 0 <= index < length()
+    // Постусловие: возвращен элемент с индексом index
+    public int get(long index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Error: incorrect index value. Beyond the required range (index < 0 || index >= length)");
+        }
+        return segments[(int) (index >>> SEGMENT_SHIFT)].getInt((int) (index & SEGMENT_MASK) << 2);
+    }
+}
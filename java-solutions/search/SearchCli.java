@@ -0,0 +1,214 @@
+package search;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.IntToLongFunction;
+
+// Потоковый режим BinarySearch и BinarySearch3637:
+//   java search.BinarySearch --mapped array.bin [queries.txt]
+// Массив - файл little-endian int, отображенный в память (MappedIntArray). Запросы - целые числа
+// через пробельные символы из файла или stdin; ответы печатаются по одному в строке.
+// Ввод и вывод идут через каналы и буферы по 64 КБ с разбором и печатью чисел вручную,
+// без Scanner/String и без сброса вывода на каждый ответ. При ошибке (в том числе в запросе) уже
+// посчитанные ответы выводятся, сообщение печатается в stderr, и процесс завершается с кодом 1.
+public final class SearchCli {
+    static final String MAPPED = "--mapped";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private SearchCli() {
+    }
+
+    // Предусловие: args[0] == MAPPED; prepare по массиву возвращает функцию ответа на запрос
+    // Постусловие: ответы на все запросы записаны в stdout, либо в stderr выведена ошибка
+    //              и процесс завершен с ненулевым кодом
+    static void main(String[] args, String className, Function<MappedIntArray, IntToLongFunction> prepare) {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: java " + className + " " + MAPPED + " array.bin [queries.txt]");
+            System.exit(2);
+        }
+        try {
+            MappedIntArray array = new MappedIntArray(Path.of(args[1]));
+            IntToLongFunction searcher = prepare.apply(array);
+            // stdin и stdout обернуты так, что закрытие обертки их не закрывает
+            try (ReadableByteChannel in = args.length == 3
+                    ? FileChannel.open(Path.of(args[2]))
+                    : unclosableInput(Channels.newChannel(System.in));
+                 WritableByteChannel out = unclosableOutput(new FileOutputStream(FileDescriptor.out).getChannel())) {
+                run(in, out, searcher);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static ReadableByteChannel unclosableInput(ReadableByteChannel channel) {
+        return new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                return channel.read(dst);
+            }
+
+            @Override
+            public boolean isOpen() {
+                return channel.isOpen();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static WritableByteChannel unclosableOutput(WritableByteChannel channel) {
+        return new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                return channel.write(src);
+            }
+
+            @Override
+            public boolean isOpen() {
+                return channel.isOpen();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    // Предусловие: in, out, searcher != null
+    // Постусловие: для каждого числа x из in в out записана строка searcher(x); возвращено число запросов.
+    //              Если запрос не разобран (NumberFormatException), ответы на предыдущие запросы уже в out
+    public static long run(ReadableByteChannel in, WritableByteChannel out, IntToLongFunction searcher) throws IOException {
+        QueryReader reader = new QueryReader(in);
+        ResultWriter writer = new ResultWriter(out);
+        long count = 0;
+        try {
+            while (reader.hasNext()) {
+                writer.println(searcher.applyAsLong(reader.nextInt()));
+                count++;
+            }
+        } finally {
+            writer.flush();
+        }
+        return count;
+    }
+
+    private static final class QueryReader {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private boolean eof;
+
+        // инвариант: непрочитанные байты ввода - buffer[position..limit) и далее channel
+
+        private QueryReader(ReadableByteChannel channel) {
+            this.channel = channel;
+            buffer.limit(0);
+        }
+
+        private int peek() throws IOException {
+            // Пост: возвращен следующий байт (0..255) без его извлечения или -1 в конце ввода
+            while (!buffer.hasRemaining()) {
+                if (eof) {
+                    return -1;
+                }
+                buffer.clear();
+                eof = channel.read(buffer) < 0;
+                buffer.flip();
+            }
+            return buffer.get(buffer.position()) & 0xFF;
+        }
+
+        boolean hasNext() throws IOException {
+            // Пост: пробельные символы пропущены; возвращено true, если ввод не закончился
+            int c;
+            while ((c = peek()) >= 0 && isSpace(c)) {
+                buffer.get();
+            }
+            return c >= 0;
+        }
+
+        private static boolean isSpace(int c) {
+            return c < 0x80 && Character.isWhitespace(c);
+        }
+
+        int nextInt() throws IOException {
+            // Пред: hasNext()
+            // Пост: прочитано и возвращено очередное число; NumberFormatException, если это не int
+            if (!hasNext()) {
+                throw new NoSuchElementException("no more queries");
+            }
+            boolean negative = peek() == '-';
+            if (negative) {
+                buffer.get();
+            }
+            long value = 0;
+            int digits = 0;
+            int c;
+            while ((c = peek()) >= 0 && !isSpace(c)) {
+                buffer.get();
+                if (c >= 0x80) {
+                    throw new NumberFormatException("query contains a non-ASCII byte 0x" + Integer.toHexString(c));
+                }
+                if (c < '0' || c > '9' || digits > 10) {
+                    throw new NumberFormatException("query is not an integer");
+                }
+                value = value * 10 + (c - '0');
+                digits++;
+            }
+            value = negative ? -value : value;
+            if (digits == 0 || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("query is not an integer");
+            }
+            return (int) value;
+        }
+    }
+
+    private static final class ResultWriter {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final byte[] digits = new byte[20];
+
+        private ResultWriter(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        void println(long value) throws IOException {
+            // Пост: в буфер добавлена десятичная запись value и перевод строки
+            if (buffer.remaining() < digits.length + 2) {
+                flush();
+            }
+            if (value < 0) {
+                buffer.put((byte) '-');
+                value = -value;
+            }
+            int start = digits.length;
+            do {
+                digits[--start] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            buffer.put(digits, start, digits.length - start);
+            buffer.put((byte) '\n');
+        }
+
+        void flush() throws IOException {
+            // Пост: содержимое буфера записано в канал, буфер пуст
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
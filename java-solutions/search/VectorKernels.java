@@ -0,0 +1,80 @@
+package search;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Векторные ядра VectorizedSearch. Вынесены в отдельный класс: он загружается, только если модуль
+// jdk.incubator.vector доступен, поэтому без --add-modules работает скалярный путь.
+final class VectorKernels {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    // Для опорных элементов берется не больше 8 дорожек: каждая опора - отдельная строка кэша,
+    // и 16 промахов на шаг (AVX-512) обходятся дороже, чем лишний уровень спуска.
+    // Опоры читаются скалярно в буфер: gather с картой индексов здесь оказался не быстрее
+    private static final VectorSpecies<Integer> PIVOTS = LANES > 8 ? IntVector.SPECIES_256 : SPECIES;
+    private static final int PIVOT_LANES = PIVOTS.length();
+    // Буфер опор свой у каждого потока, чтобы запрос не выделял память; берется один раз на запрос
+    private static final ThreadLocal<int[]> PIVOT_BUFFER = ThreadLocal.withInitial(() -> new int[PIVOT_LANES]);
+
+    // Длина диапазона, начиная с которой выгоднее k-арный шаг, чем подсчет всего диапазона
+    private static final int SCAN_THRESHOLD = 4 * LANES;
+
+    private VectorKernels() {
+    }
+
+    // Предусловие:
+    // 1. a != null, 0 <= left <= right <= a.length
+    // 2. descending == true: a[left..right) не возрастает; иначе a[left..right) не убывает
+    // Постусловие: возвращает число элементов a[left..right), "раньше" x: больших x при descending,
+    //              меньших x иначе. Эти элементы образуют префикс диапазона, поэтому left + результат -
+    //              минимальный i, где a[i] <= x (соответственно a[i] >= x), либо right
+    // Доказательство корректности:
+    // инвариант: предикат истинен на a[left..lo) и ложен на a[hi..right), left <= lo <= hi <= right
+    // Переход: k = PIVOT_LANES опорных элементов p_1 < ... < p_k из (lo, hi) сравниваются за одну операцию;
+    //          предикат истинен ровно на первых c из них, поэтому ответ лежит в (p_c, p_(c + 1)].
+    // Завершение: hi - lo уменьшается примерно в k + 1 раз за шаг; остаток считается сканированием.
+    static int countBefore(int x, int[] a, int left, int right, boolean descending) {
+        int lo = left;
+        int hi = right;
+        if (hi - lo <= SCAN_THRESHOLD) {
+            return countScan(x, a, lo, hi, descending);
+        }
+        int[] pivots = PIVOT_BUFFER.get();
+        while (hi - lo > SCAN_THRESHOLD) {
+            int step = (hi - lo) / (PIVOT_LANES + 1);
+            for (int k = 0; k < PIVOT_LANES; k++) {
+                pivots[k] = a[lo + (k + 1) * step];
+            }
+            int c = before(IntVector.fromArray(PIVOTS, pivots, 0), x, descending).trueCount();
+            int newLo = c == 0 ? lo : lo + c * step + 1;
+            hi = c == PIVOT_LANES ? hi : lo + (c + 1) * step;
+            lo = newLo;
+        }
+        return lo - left + countScan(x, a, lo, hi, descending);
+    }
+
+    // Оператор сравнения выбирается ветвлением, а не передается параметром: JIT заменяет сравнение векторной
+    // инструкцией, только если оператор - константа
+    private static VectorMask<Integer> before(IntVector v, int x, boolean descending) {
+        return descending ? v.compare(VectorOperators.GT, x) : v.compare(VectorOperators.LT, x);
+    }
+
+    // Предусловие: 0 <= lo <= hi <= a.length
+    // Постусловие: возвращено число i из [lo, hi), для которых a[i] > x при descending, a[i] < x иначе
+    private static int countScan(int x, int[] a, int lo, int hi, boolean descending) {
+        int count = 0;
+        int i = lo;
+        for (int bound = lo + SPECIES.loopBound(hi - lo); i < bound; i += LANES) {
+            count += before(IntVector.fromArray(SPECIES, a, i), x, descending).trueCount();
+        }
+        for (; i < hi; i++) {
+            if (descending ? a[i] > x : a[i] < x) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,51 @@
+package search;
+
+// Поиск с векторными сравнениями (jdk.incubator.vector): k-арный спуск сравнивает целый вектор опорных
+// элементов за шаг, а оставшиеся несколько строк кэша подсчитываются векторным сканированием без
+// ветвлений. Результаты совпадают с BinarySearch.iterativeBinarySearch и BinarySearch3637.search.
+// Если JVM запущена без --add-modules jdk.incubator.vector, используются скалярные реализации.
+public final class VectorizedSearch {
+    private static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private VectorizedSearch() {
+    }
+
+    // Постусловие: возвращает true, если используется векторный путь
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    // Предусловие:
+    // 1. a != null, a отсортирован по невозрастанию
+    // 2. x - целое число
+    // Постусловие:
+    // 1. Возвращает минимальный индекс i, при котором a[i] <= x
+    // 2. Если такого i нет, возвращает a.length
+    public static int search(int x, int[] a) {
+        if (!VECTORIZED) {
+            return BinarySearch.iterativeBinarySearch(x, a);
+        }
+        // Элементы, большие x, образуют префикс a; их число и есть ответ
+        return VectorKernels.countBefore(x, a, 0, a.length, true);
+    }
+
+    // Предусловие: a != null && a.length > 0, a - строго убывающий массив, за которым идет строго возрастающий
+    // Постусловие: возвращает индекс первого вхождения x в a или -1, если x не найден
+    // Доказательство корректности:
+    // 1. В убывающей части a[0..leftEnd) x может стоять только на минимальном i с a[i] <= x.
+    // 2. В возрастающей части a[leftEnd..) - только на минимальном i с a[i] >= x.
+    // 3. Левая часть проверяется первой, поэтому возвращается первое вхождение.
+    public static int firstIndexOf(int x, int[] a) {
+        if (!VECTORIZED) {
+            return BinarySearch3637.search(x, a);
+        }
+        int breakpoint = BinarySearch3637.findBreakpoint(a);
+        int leftEnd = breakpoint == 0 ? a.length : breakpoint;
+        int i = VectorKernels.countBefore(x, a, 0, leftEnd, true);
+        if (i < leftEnd && a[i] == x) {
+            return i;
+        }
+        int j = leftEnd + VectorKernels.countBefore(x, a, leftEnd, a.length, false);
+        return j < a.length && a[j] == x ? j : -1;
+    }
+}
@@ -3,9 +3,54 @@ package tests;
 import queue.ArrayQueue;
 import queue.ArrayQueueADT;
 import queue.ArrayQueueModule;
+import queue.BlockingQueueAdapter;
+import queue.BoundedArrayQueue;
+import queue.ConcurrentArrayQueue;
+import queue.DoubleArrayQueue;
+import queue.InstrumentedQueue;
+import queue.IntArrayQueue;
+import queue.LatencyHistogram;
+import queue.LinkedQueue;
+import queue.LongArrayQueue;
+import queue.MappedSegmentQueue;
+import queue.OffHeapQueue;
+import queue.OverflowPolicy;
+import queue.Queue;
+import queue.QueueMetrics;
+import queue.QueuePipeline;
+import queue.RecordCodec;
+import queue.SpscArrayQueue;
+import queue.UnrolledLinkedQueue;
+import queue.WorkStealingDeque;
+import queue.WorkStealingScheduler;
 import org.junit.Test;
 import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.management.ObjectName;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.Supplier;
 
 public class QueueTests {
     @Test
@@ -61,6 +106,995 @@ public class QueueTests {
         assertEquals("updated", queue.get(0));
     }
 
+    @Test
+    public void testLinkedQueue() {
+        LinkedQueue<String> queue = new LinkedQueue<>();
+        queue.enqueue("a");
+        queue.enqueue("b");
+        queue.push("c");
+        assertEquals("c", queue.get(0));
+        assertEquals("b", queue.get(2));
+        assertEquals("b", queue.peek());
+        queue.set(1, "updated");
+        assertEquals("updated", queue.get(1));
+        assertEquals("b", queue.remove());
+        assertEquals("updated", queue.peek());
+    }
+
+    @Test
+    public void testUnrolledLinkedQueue() {
+        UnrolledLinkedQueue<Integer> queue = new UnrolledLinkedQueue<>();
+        for (int i = 0; i < 200; i++) {
+            queue.enqueue(i);
+            queue.push(-i);
+        }
+        assertEquals(400, queue.size());
+        assertEquals(Integer.valueOf(-199), queue.element());
+        assertEquals(Integer.valueOf(199), queue.peek());
+        assertEquals(Integer.valueOf(0), queue.get(199));
+        queue.set(300, 1000);
+        assertEquals(Integer.valueOf(1000), queue.get(300));
+        for (int i = 0; i < 150; i++) {
+            queue.dequeue();
+            queue.remove();
+        }
+        assertEquals(Integer.valueOf(-49), queue.element());
+        assertEquals(Integer.valueOf(49), queue.peek());
+        assertEquals(49, queue.filter(x -> x > 0).size());
+    }
+
+    @Test
+    public void testQueueIteration() {
+        ArrayQueue<Integer> queue = new ArrayQueue<>();
+        queue.enqueue(2);
+        queue.enqueue(3);
+        queue.push(1);
+        int expected = 1;
+        for (Integer element : queue) {
+            assertEquals(Integer.valueOf(expected++), element);
+        }
+        assertEquals(Integer.valueOf(6), queue.map(x -> x * 2).peek());
+        assertEquals(1, queue.filter(x -> x % 2 == 0).size());
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void testFailFastIterator() {
+        LinkedQueue<Integer> queue = new LinkedQueue<>();
+        queue.enqueue(1);
+        queue.enqueue(2);
+        Iterator<Integer> iterator = queue.iterator();
+        iterator.next();
+        queue.dequeue();
+        iterator.next();
+    }
+
+    @Test
+    public void testArrayQueueCapacity() {
+        ArrayQueue<Integer> queue = new ArrayQueue<>(3, true);
+        assertEquals(4, queue.capacity());
+        for (int i = 0; i < 100; i++) {
+            queue.push(i);
+        }
+        assertEquals(128, queue.capacity());
+        while (queue.size() > 10) {
+            queue.dequeue();
+        }
+        assertEquals(32, queue.capacity());
+        assertEquals(Integer.valueOf(0), queue.get(0));
+        queue.trimToSize();
+        assertEquals(16, queue.capacity());
+        queue.ensureCapacity(100);
+        assertEquals(128, queue.capacity());
+        assertEquals(Integer.valueOf(9), queue.element());
+
+        ArrayQueueADT<Integer> adt = new ArrayQueueADT<>(5);
+        assertEquals(8, ArrayQueueADT.capacity(adt));
+    }
+
+    @Test
+    public void testBatchOperations() {
+        ArrayQueue<Integer> queue = new ArrayQueue<>(4);
+        queue.enqueue(0);
+        queue.dequeue();
+        queue.enqueueAll(new Integer[]{1, 2, 3, 4, 5});
+        queue.enqueueAll(List.of(6, 7));
+        assertEquals(7, queue.size());
+
+        Integer[] batch = new Integer[3];
+        assertEquals(3, queue.dequeueBatch(batch));
+        assertArrayEquals(new Integer[]{1, 2, 3}, batch);
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, queue.drainTo(drained, 2));
+        assertEquals(List.of(4, 5), drained);
+        assertEquals(Integer.valueOf(6), queue.element());
+
+        LinkedQueue<Integer> linked = new LinkedQueue<>();
+        linked.enqueueAll(queue);
+        assertEquals(2, linked.drainTo(drained, 10));
+        assertEquals(List.of(4, 5, 6, 7), drained);
+
+        List<Integer> withNull = Arrays.asList(1, null, 3);
+        assertThrows(IllegalArgumentException.class, () -> queue.enqueueAll(withNull));
+        assertThrows(IllegalArgumentException.class, () -> linked.enqueueAll(withNull::iterator));
+        assertThrows(IllegalArgumentException.class, () -> queue.enqueueAll(queue));
+        assertThrows(IllegalArgumentException.class, () -> linked.enqueueAll(linked));
+        assertEquals(2, queue.size());
+        assertTrue(linked.isEmpty());
+        linked.enqueueAll(List.of(8, 9)::iterator);
+        assertEquals(Integer.valueOf(9), linked.peek());
+
+        // Элементы лежат двумя сегментами кольца; target отказывает на втором сегменте
+        ArrayQueue<Integer> wrapped = new ArrayQueue<>(4);
+        ArrayQueueADT<Integer> wrappedAdt = new ArrayQueueADT<>(4);
+        for (int i = 0; i < 3; i++) {
+            wrapped.enqueue(i);
+            ArrayQueueADT.enqueue(wrappedAdt, i);
+        }
+        for (int i = 0; i < 3; i++) {
+            wrapped.dequeue();
+            ArrayQueueADT.dequeue(wrappedAdt);
+        }
+        wrapped.enqueueAll(new Integer[]{1, 2, 3});
+        ArrayQueueADT.enqueueAll(wrappedAdt, new Integer[]{1, 2, 3});
+        Supplier<List<Integer>> failingOnSecondSegment = () -> new ArrayList<>() {
+            private int calls;
+
+            @Override
+            public boolean addAll(Collection<? extends Integer> elements) {
+                if (++calls > 1) {
+                    throw new IllegalStateException("target is full");
+                }
+                return super.addAll(elements);
+            }
+        };
+        List<Integer> target = failingOnSecondSegment.get();
+        assertThrows(IllegalStateException.class, () -> wrapped.drainTo(target, 3));
+        assertEquals(List.of(1), target);
+        assertContentEquals(List.of(2, 3), wrapped);
+        List<Integer> adtTarget = failingOnSecondSegment.get();
+        assertThrows(IllegalStateException.class, () -> ArrayQueueADT.drainTo(wrappedAdt, adtTarget, 3));
+        assertEquals(List.of(1), adtTarget);
+        assertEquals(2, ArrayQueueADT.size(wrappedAdt));
+        assertEquals(Integer.valueOf(2), ArrayQueueADT.element(wrappedAdt));
+
+        assertThrows(IllegalArgumentException.class, () -> ArrayQueueADT.enqueueAll(wrappedAdt, withNull::iterator));
+        assertEquals(2, ArrayQueueADT.size(wrappedAdt));
+        ArrayQueueADT.enqueueAll(wrappedAdt, List.of(4, 5)::iterator);
+        assertEquals(4, ArrayQueueADT.size(wrappedAdt));
+    }
+
+    @Test
+    public void testIntArrayQueue() {
+        IntArrayQueue queue = new IntArrayQueue(2);
+        for (int i = 1; i <= 5; i++) {
+            queue.enqueue(i);
+        }
+        queue.push(0);
+        assertEquals(0, queue.element());
+        assertEquals(5, queue.peek());
+        assertEquals(4, queue.get(1));
+        queue.set(0, 50);
+        assertEquals(50, queue.remove());
+        assertArrayEquals(new int[]{0, 2, 4, 6, 8}, queue.map(x -> x * 2).toArray());
+        assertArrayEquals(new int[]{1, 3}, queue.filter(x -> x % 2 == 1).toArray());
+        assertEquals(0, queue.dequeue());
+        assertEquals(4, queue.size());
+    }
+
+    @Test
+    public void testLongArrayQueue() {
+        LongArrayQueue queue = new LongArrayQueue(2);
+        ArrayDeque<Long> model = new ArrayDeque<>();
+        Random random = new Random(7);
+        for (int step = 0; step < 2000; step++) {
+            int operation = random.nextInt(5);
+            long value = random.nextLong();
+            if (operation <= 1 || model.isEmpty() && operation >= 3) {
+                queue.enqueue(value);
+                model.addLast(value);
+            } else if (operation == 2) {
+                queue.push(value);
+                model.addFirst(value);
+            } else if (operation == 3) {
+                assertEquals((long) model.pollFirst(), queue.dequeue());
+            } else {
+                assertEquals((long) model.pollLast(), queue.remove());
+            }
+            assertEquals(model.size(), queue.size());
+        }
+        long[] expected = model.stream().mapToLong(Long::longValue).toArray();
+        assertArrayEquals(expected, queue.toArray());
+        assertArrayEquals(model.stream().mapToLong(x -> x ^ 1).toArray(), queue.map(x -> x ^ 1).toArray());
+        assertArrayEquals(model.stream().mapToLong(Long::longValue).filter(x -> x > 0).toArray(),
+                queue.filter(x -> x > 0).toArray());
+        long[] sum = new long[1];
+        queue.forEach(x -> sum[0] += x);
+        assertEquals(model.stream().mapToLong(Long::longValue).sum(), sum[0]);
+        if (expected.length > 1) {
+            assertEquals(expected[expected.length - 2], queue.get(1));
+            queue.set(1, 42);
+            assertEquals(42, queue.get(1));
+        }
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        assertThrows(NoSuchElementException.class, queue::element);
+    }
+
+    @Test
+    public void testDoubleArrayQueue() {
+        DoubleArrayQueue queue = new DoubleArrayQueue(2);
+        ArrayDeque<Double> model = new ArrayDeque<>();
+        Random random = new Random(8);
+        for (int step = 0; step < 2000; step++) {
+            int operation = random.nextInt(5);
+            double value = random.nextGaussian();
+            if (operation <= 1 || model.isEmpty() && operation >= 3) {
+                queue.enqueue(value);
+                model.addLast(value);
+            } else if (operation == 2) {
+                queue.push(value);
+                model.addFirst(value);
+            } else if (operation == 3) {
+                assertEquals(model.pollFirst(), queue.dequeue(), 0);
+            } else {
+                assertEquals(model.pollLast(), queue.remove(), 0);
+            }
+            assertEquals(model.size(), queue.size());
+        }
+        double[] expected = model.stream().mapToDouble(Double::doubleValue).toArray();
+        assertArrayEquals(expected, queue.toArray(), 0);
+        assertArrayEquals(model.stream().mapToDouble(x -> x * 2).toArray(), queue.map(x -> x * 2).toArray(), 0);
+        assertArrayEquals(model.stream().mapToDouble(Double::doubleValue).filter(x -> x > 0).toArray(),
+                queue.filter(x -> x > 0).toArray(), 0);
+        double[] sum = new double[1];
+        queue.forEach(x -> sum[0] += x);
+        assertEquals(Arrays.stream(expected).sum(), sum[0], 1e-9);
+        if (expected.length > 1) {
+            assertEquals(expected[expected.length - 2], queue.get(1), 0);
+            queue.set(1, 0.5);
+            assertEquals(0.5, queue.get(1), 0);
+        }
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        assertThrows(NoSuchElementException.class, queue::peek);
+    }
+
+    @Test
+    public void testConcurrentArrayQueue() throws InterruptedException {
+        ConcurrentArrayQueue<Integer> queue = new ConcurrentArrayQueue<>(3);
+        assertEquals(4, queue.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(4));
+        assertEquals(Integer.valueOf(0), queue.element());
+        assertEquals(Integer.valueOf(3), queue.peek());
+        assertEquals(Integer.valueOf(0), queue.dequeue());
+        queue.set(1, 20);
+        assertEquals(Integer.valueOf(20), queue.get(1));
+        assertEquals(Integer.valueOf(3), queue.remove());
+        assertEquals(2, queue.size());
+        assertEquals(Integer.valueOf(20), queue.peek());
+        assertTrue(queue.offer(5));
+        assertFalse(queue.offer(6));
+        assertEquals(Integer.valueOf(1), queue.dequeue());
+        assertTrue(queue.removeIf(x -> x == 20));
+        assertEquals(Integer.valueOf(5), queue.element());
+        queue.replaceAll(x -> x * 10);
+        assertEquals(Integer.valueOf(50), queue.dequeue());
+        assertTrue(queue.isEmpty());
+        queue.clear();
+        assertNull(queue.poll());
+
+        ConcurrentArrayQueue<Integer> shared = new ConcurrentArrayQueue<>(1024);
+        int perProducer = 10000;
+        long[] sum = new long[1];
+        Thread[] producers = new Thread[2];
+        for (int p = 0; p < producers.length; p++) {
+            producers[p] = new Thread(() -> {
+                for (int i = 1; i <= perProducer; i++) {
+                    while (!shared.offer(i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            producers[p].start();
+        }
+        Thread consumer = new Thread(() -> {
+            for (int received = 0; received < producers.length * perProducer; ) {
+                Integer value = shared.poll();
+                if (value != null) {
+                    sum[0] += value;
+                    received++;
+                } else {
+                    Thread.yield();
+                }
+            }
+        });
+        consumer.start();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        consumer.join();
+        assertEquals((long) producers.length * perProducer * (perProducer + 1) / 2, sum[0]);
+    }
+
+    @Test
+    public void testConcurrentArrayQueueMultipleConsumers() throws InterruptedException {
+        ConcurrentArrayQueue<Integer> queue = new ConcurrentArrayQueue<>(64);
+        int perProducer = 5000;
+        int total = 2 * perProducer;
+        AtomicIntegerArray taken = new AtomicIntegerArray(total);
+        AtomicInteger received = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < 2; p++) {
+            int first = p * perProducer;
+            threads.add(new Thread(() -> {
+                for (int i = first; i < first + perProducer; i++) {
+                    while (!queue.offer(i)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        for (int c = 0; c < 3; c++) {
+            boolean fromTail = c == 0;
+            threads.add(new Thread(() -> {
+                while (received.get() < total) {
+                    Integer value = queue.poll();
+                    if (value == null && fromTail) {
+                        try {
+                            value = queue.remove();
+                        } catch (NoSuchElementException e) {
+                            // очередь успели опустошить
+                        }
+                    }
+                    if (value != null) {
+                        taken.incrementAndGet(value);
+                        received.incrementAndGet();
+                    } else {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int i = 0; i < total; i++) {
+            assertEquals(1, taken.get(i));
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testSpscArrayQueueHandOff() throws InterruptedException {
+        SpscArrayQueue<Integer> queue = new SpscArrayQueue<>(1024);
+        int count = 3_000_000;
+        Thread producer = new Thread(() -> {
+            Integer[] batch = new Integer[16];
+            int next = 0;
+            while (next < count) {
+                if (next % 3 == 0) {
+                    int length = Math.min(batch.length, count - next);
+                    for (int i = 0; i < length; i++) {
+                        batch[i] = next + i;
+                    }
+                    next += queue.offer(batch, 0, length);
+                } else if (queue.offer(next)) {
+                    next++;
+                } else {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+        Integer[] batch = new Integer[32];
+        int expected = 0;
+        while (expected < count) {
+            int taken = expected % 2 == 0 ? queue.dequeueBatch(batch) : 0;
+            for (int i = 0; i < taken; i++) {
+                assertEquals(expected++, (int) batch[i]);
+            }
+            Integer value = queue.poll();
+            if (value != null) {
+                assertEquals(expected++, (int) value);
+            } else if (taken == 0) {
+                Thread.yield();
+            }
+        }
+        producer.join();
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testSpscArrayQueue() {
+        SpscArrayQueue<Integer> queue = new SpscArrayQueue<>(4);
+        queue.enqueue(1);
+        queue.enqueue(2);
+        assertEquals(Integer.valueOf(1), queue.dequeue());
+        assertEquals(3, queue.offer(new Integer[]{3, 4, 5, 6}, 0, 4));
+        assertFalse(queue.offer(7));
+        assertEquals(Integer.valueOf(5), queue.peek());
+        Integer[] batch = new Integer[8];
+        assertEquals(4, queue.dequeueBatch(batch));
+        assertArrayEquals(new Integer[]{2, 3, 4, 5, null, null, null, null}, batch);
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testBlockingQueueAdapter() throws InterruptedException {
+        BlockingQueueAdapter<Integer> queue = new BlockingQueueAdapter<>(new LinkedQueue<>(), 2);
+        assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+        queue.put(1);
+        assertTrue(queue.offer(2, 10, TimeUnit.MILLISECONDS));
+        assertFalse(queue.offer(3, 10, TimeUnit.MILLISECONDS));
+
+        Thread consumer = new Thread(() -> {
+            try {
+                Thread.sleep(20);
+                queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        queue.put(3);
+        consumer.join();
+        assertEquals(Integer.valueOf(2), queue.take());
+        assertEquals(Integer.valueOf(3), queue.take());
+
+        BlockingQueueAdapter<Integer> bounded = new BlockingQueueAdapter<>(new SpscArrayQueue<>(2));
+        assertEquals(2, bounded.capacity());
+        assertThrows(IllegalArgumentException.class,
+                () -> new BlockingQueueAdapter<>(new ConcurrentArrayQueue<Integer>(2), 3));
+        bounded.put(1);
+        bounded.put(2);
+        assertFalse(bounded.offer(3, 10, TimeUnit.MILLISECONDS));
+    }
+
+    // Только платформенные потоки: сборка нацелена на Java 17, виртуальные потоки не проверяются
+    @Test
+    public void testBlockingQueueAdapterManyConsumers() throws InterruptedException {
+        int consumers = 16;
+        int count = 100_000;
+        BlockingQueueAdapter<Integer> queue = new BlockingQueueAdapter<>(new ConcurrentArrayQueue<>(64));
+        AtomicIntegerArray seen = new AtomicIntegerArray(count);
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < consumers; c++) {
+            Thread consumer = new Thread(() -> {
+                try {
+                    for (int value = queue.take(); value >= 0; value = queue.take()) {
+                        seen.incrementAndGet(value);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            consumer.start();
+            threads.add(consumer);
+        }
+        for (int i = 0; i < count; i++) {
+            queue.put(i);
+        }
+        for (int c = 0; c < consumers; c++) {
+            queue.put(-1);
+        }
+        for (Thread consumer : threads) {
+            consumer.join(10_000);
+            assertFalse(consumer.isAlive());
+        }
+        for (int i = 0; i < count; i++) {
+            assertEquals(1, seen.get(i));
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testLazyPipeline() {
+        LinkedQueue<Integer> queue = new LinkedQueue<>();
+        queue.enqueueAll(new Integer[]{1, 2, 3, 4, 5, 6});
+        int[] calls = new int[1];
+        QueuePipeline<String> pipeline = queue.lazy()
+                .filter(x -> x % 2 == 0)
+                .map(x -> {
+                    calls[0]++;
+                    return "#" + x;
+                });
+        assertEquals(0, calls[0]);
+        assertEquals(3, pipeline.count());
+        ArrayQueue<String> result = pipeline.toQueue(ArrayQueue::new);
+        assertEquals("#2", result.element());
+        assertEquals("#6", result.peek());
+        assertEquals(6, calls[0]);
+    }
+
+    @Test
+    public void testParallelMapFilter() {
+        ArrayQueue<Integer> queue = new ArrayQueue<>();
+        for (int i = 0; i < 50000; i++) {
+            queue.enqueue(i);
+        }
+        for (int i = 0; i < 20000; i++) {
+            queue.push(queue.remove());
+        }
+        Queue<Integer> reference = queue.filter(x -> x % 3 == 0);
+        Queue<Integer> mapped = queue.parallelMap(x -> x + 1);
+        Queue<Integer> filtered = queue.parallelFilter(x -> x % 3 == 0);
+        queue.setParallelThreshold(0);
+        Queue<Integer> automatic = queue.filter(x -> x % 3 == 0);
+        assertEquals(queue.size(), mapped.size());
+        Iterator<Integer> expected = queue.iterator();
+        for (Integer element : mapped) {
+            assertEquals(Integer.valueOf(expected.next() + 1), element);
+        }
+        assertContentEquals(reference, filtered);
+        assertContentEquals(reference, automatic);
+        assertEquals(Integer.valueOf(30000), filtered.element());
+
+        ArrayQueue<Integer> small = new ArrayQueue<>();
+        small.enqueue(1);
+        small.setParallelThreshold(100);
+        assertEquals(100, ((ArrayQueue<Integer>) small.map(x -> x + 1)).parallelThreshold());
+        assertEquals(100, ((ArrayQueue<Integer>) small.filter(x -> true)).parallelThreshold());
+        assertEquals(0, ((ArrayQueue<Integer>) queue.map(x -> x + 1)).parallelThreshold());
+    }
+
+    private static <T> void assertContentEquals(Queue<T> expected, Queue<T> actual) {
+        assertEquals(expected.size(), actual.size());
+        Iterator<T> iterator = actual.iterator();
+        for (T element : expected) {
+            assertEquals(element, iterator.next());
+        }
+    }
+
+    @Test
+    public void testInPlaceMutation() {
+        ArrayQueue<Integer> queue = new ArrayQueue<>(4);
+        for (int i = 0; i < 6; i++) {
+            queue.push(i);
+        }
+        queue.replaceAll(x -> x * 10);
+        assertTrue(queue.removeIf(x -> x % 20 == 0));
+        assertFalse(queue.removeIf(x -> x > 100));
+        assertEquals(3, queue.size());
+        assertEquals(Integer.valueOf(50), queue.element());
+        assertEquals(Integer.valueOf(10), queue.peek());
+
+        ArrayQueueADT<Integer> adt = new ArrayQueueADT<>();
+        ArrayQueueADT.enqueueAll(adt, new Integer[]{1, 2, 3, 4});
+        ArrayQueueADT.replaceAll(adt, x -> -x);
+        assertTrue(ArrayQueueADT.removeIf(adt, x -> x < -2));
+        assertEquals(Integer.valueOf(-2), ArrayQueueADT.peek(adt));
+
+        LinkedQueue<Integer> linked = new LinkedQueue<>();
+        linked.enqueueAll(List.of(1, 2, 3, 4, 5));
+        linked.replaceAll(x -> x + 1);
+        assertTrue(linked.removeIf(x -> x % 2 == 0));
+        List<Integer> rest = new ArrayList<>();
+        linked.drainTo(rest, 10);
+        assertEquals(List.of(3, 5), rest);
+
+        checkInPlaceMutation(new ArrayQueue<>());
+        checkInPlaceMutation(new LinkedQueue<>());
+        checkInPlaceMutation(new UnrolledLinkedQueue<>());
+        checkInPlaceMutation(new OffHeapQueue<>(RecordCodec.ofInt(), 4));
+    }
+
+    private static void checkInPlaceMutation(Queue<Integer> queue) {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            queue.push(-i);
+            expected.add(0, -i);
+            queue.enqueue(i);
+            expected.add(i);
+        }
+        queue.replaceAll(x -> x * 2);
+        expected.replaceAll(x -> x * 2);
+        assertTrue(queue.removeIf(x -> x % 3 == 0));
+        expected.removeIf(x -> x % 3 == 0);
+        assertFalse(queue.removeIf(x -> x > 1000));
+        assertContentEquals(expected, queue);
+        int[] tested = new int[1];
+        assertThrows(IllegalStateException.class, () -> queue.removeIf(x -> {
+            if (++tested[0] > 100) {
+                throw new IllegalStateException();
+            }
+            return x > 0;
+        }));
+        int removed = 0;
+        for (int i = 0; i < 100; i++) {
+            if (expected.get(i - removed) > 0) {
+                expected.remove(i - removed);
+                removed++;
+            }
+        }
+        assertContentEquals(expected, queue);
+        assertTrue(queue.removeIf(x -> true));
+        assertTrue(queue.isEmpty());
+        queue.enqueue(7);
+        assertEquals(Integer.valueOf(7), queue.peek());
+
+        // replaceAll, прерванный на середине, все равно инвалидирует итераторы
+        queue.enqueue(8);
+        Iterator<Integer> iterator = queue.iterator();
+        assertThrows(IllegalArgumentException.class, () -> queue.replaceAll(x -> x == 8 ? null : -x));
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+    }
+
+    private static <T> void assertContentEquals(List<T> expected, Queue<T> actual) {
+        assertEquals(expected.size(), actual.size());
+        List<T> elements = new ArrayList<>();
+        actual.forEach(elements::add);
+        assertEquals(expected, elements);
+    }
+
+    @Test
+    public void testOffHeapQueue() {
+        OffHeapQueue<Long> queue = new OffHeapQueue<>(RecordCodec.ofLong(), 2);
+        for (long i = 0; i < 10; i++) {
+            queue.enqueue(i);
+        }
+        queue.dequeue();
+        queue.push(-1L);
+        assertEquals(16, queue.capacity());
+        assertEquals(Long.valueOf(-1), queue.element());
+        assertEquals(Long.valueOf(9), queue.peek());
+        assertEquals(Long.valueOf(8), queue.get(1));
+        queue.set(0, 90L);
+        assertEquals(Long.valueOf(90), queue.remove());
+        assertEquals(4, queue.filter(x -> x > 0 && x % 2 == 0).size());
+    }
+
+    @Test
+    public void testMappedSegmentQueueRecovery() throws IOException {
+        Path directory = Files.createTempDirectory("mapped-queue");
+        try {
+            try (MappedSegmentQueue<Integer> queue = new MappedSegmentQueue<>(directory, RecordCodec.ofInt(), 8)) {
+                for (int i = 0; i < 30; i++) {
+                    queue.enqueue(i);
+                }
+                for (int i = 0; i < 20; i++) {
+                    queue.dequeue();
+                }
+            }
+            try (MappedSegmentQueue<Integer> queue = new MappedSegmentQueue<>(directory, RecordCodec.ofInt(), 8)) {
+                assertEquals(10, queue.size());
+                assertEquals(Integer.valueOf(20), queue.element());
+                assertEquals(Integer.valueOf(29), queue.peek());
+                assertTrue(queue.removeIf(x -> x % 2 == 0));
+                assertEquals(5, queue.size());
+                assertEquals(Integer.valueOf(21), queue.element());
+                assertEquals(Integer.valueOf(29), queue.peek());
+                assertThrows(UnsupportedOperationException.class, () -> queue.push(0));
+            }
+            try (MappedSegmentQueue<Integer> queue = new MappedSegmentQueue<>(directory, RecordCodec.ofInt(), 8)) {
+                assertEquals(5, queue.size());
+                assertEquals(Integer.valueOf(29), queue.peek());
+                queue.clear();
+                assertTrue(queue.isEmpty());
+            }
+            try (var files = Files.list(directory)) {
+                assertTrue(files.filter(file -> file.toString().endsWith(".segment")).count() <= 1);
+            }
+            assertThrows(IllegalArgumentException.class,
+                    () -> new MappedSegmentQueue<>(directory, RecordCodec.ofInt(), 16));
+            assertThrows(IllegalArgumentException.class,
+                    () -> new MappedSegmentQueue<>(directory, RecordCodec.ofLong(), 8));
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    @Test
+    public void testMappedSegmentQueueExclusiveAndClosed() throws IOException {
+        Path directory = Files.createTempDirectory("mapped-queue");
+        try {
+            Files.createFile(directory.resolve("notes.segment"));
+            MappedSegmentQueue<Integer> queue = new MappedSegmentQueue<>(directory, RecordCodec.ofInt(), 8);
+            queue.enqueue(1);
+            assertThrows(IllegalStateException.class,
+                    () -> new MappedSegmentQueue<>(directory, RecordCodec.ofInt(), 8));
+            queue.close();
+            queue.close();
+            assertThrows(IllegalStateException.class, () -> queue.enqueue(2));
+            assertThrows(IllegalStateException.class, queue::size);
+            assertThrows(IllegalStateException.class, queue::force);
+            try (MappedSegmentQueue<Integer> reopened = new MappedSegmentQueue<>(directory, RecordCodec.ofInt(), 8)) {
+                assertEquals(1, reopened.size());
+                assertEquals(Integer.valueOf(1), reopened.dequeue());
+            }
+            assertTrue(Files.exists(directory.resolve("notes.segment")));
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    @Test
+    public void testMappedSegmentQueueCorruptedCheckpoint() throws IOException {
+        Path directory = Files.createTempDirectory("mapped-queue");
+        try {
+            try (MappedSegmentQueue<Integer> queue = new MappedSegmentQueue<>(directory, RecordCodec.ofInt(), 8)) {
+                for (int i = 0; i < 12; i++) {
+                    queue.enqueue(i);
+                }
+                queue.dequeue();
+            }
+            try (FileChannel channel = FileChannel.open(directory.resolve("checkpoint"), StandardOpenOption.WRITE)) {
+                ByteBuffer tail = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(0, 100);
+                channel.write(tail, Long.BYTES);
+            }
+            try (MappedSegmentQueue<Integer> queue = new MappedSegmentQueue<>(directory, RecordCodec.ofInt(), 8)) {
+                assertEquals(11, queue.size());
+                assertEquals(Integer.valueOf(1), queue.element());
+                assertEquals(Integer.valueOf(11), queue.peek());
+            }
+            try (FileChannel channel = FileChannel.open(
+                    directory.resolve(String.format("%020d.segment", 1)), StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(Integer.BYTES), (long) 2 * (Integer.BYTES + Integer.BYTES));
+            }
+            try (MappedSegmentQueue<Integer> queue = new MappedSegmentQueue<>(directory, RecordCodec.ofInt(), 8)) {
+                assertEquals(9, queue.size());
+                assertEquals(Integer.valueOf(9), queue.peek());
+            }
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (var files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Test
+    public void testArrayQueueModuleNamedInstances() throws InterruptedException {
+        ArrayQueueModule.Instance first = ArrayQueueModule.named("first");
+        ArrayQueueModule.Instance second = ArrayQueueModule.named("second");
+        assertSame(first, ArrayQueueModule.named("first"));
+        Thread[] producers = new Thread[4];
+        for (int t = 0; t < producers.length; t++) {
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    first.enqueue(i);
+                    second.push(i);
+                }
+            });
+            producers[t].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertEquals(4000, first.size());
+        assertEquals(4000, second.size());
+        int polled = 0;
+        while (first.poll() != null) {
+            polled++;
+        }
+        assertEquals(4000, polled);
+        assertTrue(ArrayQueueModule.release("first"));
+        assertTrue(ArrayQueueModule.release("second"));
+        assertNotSame(first, ArrayQueueModule.named("first"));
+        ArrayQueueModule.release("first");
+    }
+
+    @Test
+    public void testInstrumentedQueue() throws Exception {
+        InstrumentedQueue<Integer> queue = new InstrumentedQueue<>(new ArrayQueue<>(4, true));
+        for (int i = 0; i < 40; i++) {
+            queue.enqueue(i);
+        }
+        for (int i = 0; i < 35; i++) {
+            queue.dequeue();
+        }
+        QueueMetrics.Snapshot snapshot = queue.metrics().snapshot();
+        assertEquals(40, snapshot.enqueueCount);
+        assertEquals(35, snapshot.dequeueCount);
+        assertEquals(5, snapshot.currentSize);
+        assertEquals(40, snapshot.peakSize);
+        assertEquals(4, snapshot.growCount);
+        assertTrue(snapshot.shrinkCount > 0);
+        assertEquals(40, snapshot.enqueueLatency.count());
+        assertTrue(snapshot.enqueueLatency.valueAtPercentile(50) <= snapshot.enqueueLatency.max());
+
+        ObjectName name = queue.metrics().register("test");
+        try {
+            assertEquals(40L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "EnqueueCount"));
+        } finally {
+            queue.metrics().unregister();
+        }
+
+        ArrayQueue<Integer> observed = new ArrayQueue<>(4);
+        AtomicInteger resizes = new AtomicInteger();
+        observed.setResizeListener((oldCapacity, newCapacity, copied) -> resizes.incrementAndGet());
+        InstrumentedQueue<Integer> chained = new InstrumentedQueue<>(observed);
+        chained.enqueueAll(List.of(1, 2, 3, 4, 5));
+        assertEquals(1, resizes.get());
+        assertEquals(1, chained.metrics().snapshot().growCount);
+        chained.drainTo(new ArrayList<>(), 2);
+        assertEquals(3, chained.metrics().snapshot().currentSize);
+
+        InstrumentedQueue<Integer> dropping = new InstrumentedQueue<>(
+                new BoundedArrayQueue<>(2, OverflowPolicy.DROP_NEWEST));
+        for (int i = 0; i < 5; i++) {
+            dropping.enqueue(i);
+        }
+        assertEquals(2, dropping.metrics().snapshot().currentSize);
+        assertEquals(5, dropping.metrics().snapshot().enqueueCount);
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        long median = histogram.snapshot().valueAtPercentile(50);
+        assertTrue(median >= 500_000 && median <= 500_000 + 500_000 / 32);
+    }
+
+    @Test
+    public void testWorkStealingDeque() {
+        WorkStealingDeque<Integer> deque = new WorkStealingDeque<>(2);
+        for (int i = 0; i < 10; i++) {
+            deque.push(i);
+        }
+        assertEquals(16, deque.capacity());
+        assertEquals(Integer.valueOf(9), deque.pop());
+        assertEquals(Integer.valueOf(0), deque.steal());
+        assertEquals(8, deque.size());
+        while (deque.pop() != null) {
+            // опустошаем очередь
+        }
+        assertNull(deque.steal());
+        assertTrue(deque.isEmpty());
+    }
+
+    @Test
+    public void testWorkStealingDequeConcurrentSteal() throws InterruptedException {
+        WorkStealingDeque<Integer> deque = new WorkStealingDeque<>(2);
+        int count = 100000;
+        AtomicIntegerArray taken = new AtomicIntegerArray(count);
+        AtomicBoolean done = new AtomicBoolean();
+        Thread[] thieves = new Thread[3];
+        for (int t = 0; t < thieves.length; t++) {
+            thieves[t] = new Thread(() -> {
+                while (!done.get() || !deque.isEmpty()) {
+                    Integer value = deque.steal();
+                    if (value != null) {
+                        taken.incrementAndGet(value);
+                    } else {
+                        Thread.yield();
+                    }
+                }
+            });
+            thieves[t].start();
+        }
+        for (int i = 0; i < count; i++) {
+            deque.push(i);
+            if (i % 3 == 0) {
+                Integer value = deque.pop();
+                if (value != null) {
+                    taken.incrementAndGet(value);
+                }
+            }
+        }
+        Integer value;
+        while ((value = deque.pop()) != null) {
+            taken.incrementAndGet(value);
+        }
+        done.set(true);
+        for (Thread thief : thieves) {
+            thief.join();
+        }
+        for (int i = 0; i < count; i++) {
+            assertEquals(1, taken.get(i));
+        }
+    }
+
+    @Test
+    public void testWorkStealingScheduler() throws InterruptedException {
+        AtomicInteger leaves = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1 << 10);
+        try (WorkStealingScheduler scheduler = new WorkStealingScheduler(4)) {
+            scheduler.execute(() -> split(scheduler, 10, leaves, done));
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1 << 10, leaves.get());
+    }
+
+    @Test
+    public void testWorkStealingSchedulerShutdownRace() throws InterruptedException {
+        for (int round = 0; round < 50; round++) {
+            WorkStealingScheduler scheduler = new WorkStealingScheduler(2);
+            AtomicInteger accepted = new AtomicInteger();
+            AtomicInteger executed = new AtomicInteger();
+            Thread submitter = new Thread(() -> {
+                try {
+                    while (true) {
+                        scheduler.execute(executed::incrementAndGet);
+                        accepted.incrementAndGet();
+                    }
+                } catch (RejectedExecutionException e) {
+                    // планировщик остановлен
+                }
+            });
+            submitter.start();
+            Thread.sleep(round % 5);
+            scheduler.close();
+            submitter.join();
+            assertTrue(scheduler.awaitTermination(1, TimeUnit.SECONDS));
+            assertEquals(accepted.get(), executed.get());
+        }
+    }
+
+    private static void split(WorkStealingScheduler scheduler, int depth, AtomicInteger leaves, CountDownLatch done) {
+        if (depth == 0) {
+            leaves.incrementAndGet();
+            done.countDown();
+            return;
+        }
+        scheduler.execute(() -> split(scheduler, depth - 1, leaves, done));
+        scheduler.execute(() -> split(scheduler, depth - 1, leaves, done));
+    }
+
+    @Test
+    public void testBoundedArrayQueuePolicies() throws InterruptedException {
+        BoundedArrayQueue<Integer> oldest = new BoundedArrayQueue<>(3, OverflowPolicy.DROP_OLDEST);
+        BoundedArrayQueue<Integer> newest = new BoundedArrayQueue<>(3, OverflowPolicy.DROP_NEWEST);
+        for (int i = 0; i < 5; i++) {
+            oldest.enqueue(i);
+            newest.enqueue(i);
+        }
+        assertEquals(Integer.valueOf(2), oldest.element());
+        assertEquals(Integer.valueOf(2), newest.peek());
+        assertEquals(2, oldest.droppedCount());
+        assertEquals(2, newest.droppedCount());
+
+        BoundedArrayQueue<Integer> reject = new BoundedArrayQueue<>(1, OverflowPolicy.REJECT);
+        reject.enqueue(1);
+        assertFalse(reject.offer(2));
+        assertEquals(1, reject.rejectedCount());
+
+        BoundedArrayQueue<Integer> block = new BoundedArrayQueue<>(1, OverflowPolicy.BLOCK, 5, TimeUnit.SECONDS);
+        block.enqueue(1);
+        Thread consumer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            block.dequeue();
+        });
+        consumer.start();
+        block.enqueue(2);
+        consumer.join();
+        assertEquals(Integer.valueOf(2), block.element());
+        assertEquals(0, block.rejectedCount());
+
+        BoundedArrayQueue<Integer> timed = new BoundedArrayQueue<>(1, OverflowPolicy.BLOCK, 20, TimeUnit.MILLISECONDS);
+        timed.enqueue(1);
+        assertFalse(timed.offer(2));
+        assertEquals(1, timed.rejectedCount());
+        assertThrows(IllegalStateException.class, () -> timed.enqueue(3));
+        assertEquals(2, timed.rejectedCount());
+        Thread.currentThread().interrupt();
+        assertThrows(IllegalStateException.class, () -> timed.offer(4));
+        assertTrue(Thread.interrupted());
+        assertEquals(2, timed.rejectedCount());
+        assertEquals(Integer.valueOf(1), timed.peek());
+
+        ArrayQueueADT<Integer> adt = new ArrayQueueADT<>(5, OverflowPolicy.DROP_OLDEST);
+        ArrayQueueADT.enqueueAll(adt, new Integer[]{1, 2, 3, 4, 5, 6, 7});
+        assertEquals(5, ArrayQueueADT.capacity(adt));
+        assertEquals(Integer.valueOf(3), ArrayQueueADT.element(adt));
+        assertEquals(2, ArrayQueueADT.droppedCount(adt));
+    }
+
     @Test(expected = NoSuchElementException.class)
     public void testEmptyDequeueModule() {
         ArrayQueueModule.clear();
@@ -0,0 +1,214 @@
+package tests;
+
+import search.BinarySearch;
+import search.BinarySearch3637;
+import search.BitonicIndex;
+import search.EytzingerIndex;
+import search.MappedIntArray;
+import search.SearchCli;
+import search.VectorizedSearch;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+public class SearchTests {
+    private static int[] nonIncreasing(Random random, int length, int spread) {
+        int[] a = new int[length];
+        int value = random.nextInt(spread) - spread / 2;
+        for (int i = 0; i < length; i++) {
+            value -= random.nextInt(3);
+            a[i] = value;
+        }
+        return a;
+    }
+
+    private static int[] bitonic(Random random, int length) {
+        int breakpoint = random.nextInt(length + 1);
+        int[] a = new int[length];
+        int value = 0;
+        for (int i = breakpoint - 1; i >= 0; i--) {
+            value += 1 + random.nextInt(3);
+            a[i] = value;
+        }
+        value = random.nextInt(5) - 2;
+        for (int i = breakpoint; i < length; i++) {
+            value += 1 + random.nextInt(3);
+            a[i] = value;
+        }
+        return a;
+    }
+
+    private static Path writeArray(int[] a) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(a.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asIntBuffer().put(a);
+        Path file = Files.createTempFile("mapped", ".bin");
+        Files.write(file, bytes.array());
+        return file;
+    }
+
+    @Test
+    public void testEytzingerIndexMatchesBinarySearch() {
+        Random random = new Random(3637);
+        for (int length = 0; length < 300; length++) {
+            int[] a = nonIncreasing(random, length, 100);
+            EytzingerIndex index = new EytzingerIndex(a);
+            for (int x = -500; x <= 100; x += 3) {
+                assertEquals(BinarySearch.iterativeBinarySearch(x, a), index.search(x));
+            }
+            assertEquals(BinarySearch.iterativeBinarySearch(Integer.MIN_VALUE, a), index.search(Integer.MIN_VALUE));
+            assertEquals(BinarySearch.iterativeBinarySearch(Integer.MAX_VALUE, a), index.search(Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    public void testBatchSearch() {
+        Random random = new Random(37);
+        for (int length : new int[]{0, 1, 2, 17, 1000}) {
+            int[] a = nonIncreasing(random, length, 100);
+            int[] queries = new int[length * 10 + 5];
+            for (int j = 0; j < queries.length; j++) {
+                queries[j] = random.nextInt(2000) - 1500;
+            }
+            int[] results = new int[queries.length];
+            BinarySearch.batchSearch(queries, a, results);
+            for (int j = 0; j < queries.length; j++) {
+                assertEquals(BinarySearch.iterativeBinarySearch(queries[j], a), results[j]);
+            }
+            Arrays.sort(queries);
+            BinarySearch.batchSearch(queries, a, results);
+            for (int j = 0; j < queries.length; j++) {
+                assertEquals(BinarySearch.iterativeBinarySearch(queries[j], a), results[j]);
+            }
+            for (int j = 0; j < queries.length / 2; j++) {
+                int t = queries[j];
+                queries[j] = queries[queries.length - 1 - j];
+                queries[queries.length - 1 - j] = t;
+            }
+            BinarySearch.batchSearch(queries, a, results);
+            for (int j = 0; j < queries.length; j++) {
+                assertEquals(BinarySearch.iterativeBinarySearch(queries[j], a), results[j]);
+            }
+        }
+    }
+
+    @Test
+    public void testBitonicIndexMatchesBinarySearch3637() {
+        Random random = new Random(36);
+        for (int length = 1; length < 200; length++) {
+            int[] a = bitonic(random, length);
+            BitonicIndex index = new BitonicIndex(a);
+            int[] queries = new int[3 * length + 10];
+            for (int j = 0; j < queries.length; j++) {
+                queries[j] = j - 5;
+            }
+            int[] results = new int[queries.length];
+            index.firstIndexOf(queries, results);
+            for (int j = 0; j < queries.length; j++) {
+                assertEquals(BinarySearch3637.search(queries[j], a), results[j]);
+            }
+        }
+        assertEquals(-1, new BitonicIndex(new int[0]).firstIndexOf(0));
+    }
+
+    @Test
+    public void testVectorizedSearchMatchesScalar() {
+        // Тесты запускаются с --add-modules jdk.incubator.vector, иначе векторный путь не проверяется
+        assertTrue(VectorizedSearch.isVectorized());
+        Random random = new Random(24);
+        for (int length : new int[]{0, 1, 7, 64, 65, 1000, 100_000}) {
+            int[] a = nonIncreasing(random, length, 100);
+            for (int q = 0; q < 500; q++) {
+                int x = a.length == 0 ? q : a[random.nextInt(a.length)] + random.nextInt(3) - 1;
+                assertEquals(BinarySearch.iterativeBinarySearch(x, a), VectorizedSearch.search(x, a));
+            }
+        }
+        for (int length : new int[]{1, 2, 33, 1000, 100_000}) {
+            int breakpoint = random.nextInt(length + 1);
+            int[] a = new int[length];
+            for (int i = 0; i < breakpoint; i++) {
+                a[i] = 3 * (breakpoint - i);
+            }
+            for (int i = breakpoint; i < length; i++) {
+                a[i] = 3 * (i - breakpoint) + 1;
+            }
+            for (int q = 0; q < 500; q++) {
+                int x = random.nextInt(3 * length + 3) - 1;
+                assertEquals(BinarySearch3637.search(x, a), VectorizedSearch.firstIndexOf(x, a));
+            }
+        }
+    }
+
+    @Test
+    public void testMappedIntArraySearch() throws IOException {
+        int[] a = nonIncreasing(new Random(25), 1000, 100);
+        Path file = writeArray(a);
+        try {
+            MappedIntArray mapped = new MappedIntArray(file);
+            assertEquals(a.length, mapped.length());
+            for (int x = a[a.length - 1] - 2; x <= a[0] + 2; x++) {
+                assertEquals(BinarySearch.iterativeBinarySearch(x, a), BinarySearch.iterativeBinarySearch(x, mapped));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testMappedIntArrayBinarySearch3637() throws IOException {
+        Random random = new Random(3637);
+        for (int length = 1; length < 100; length += 7) {
+            int[] a = bitonic(random, length);
+            Path file = writeArray(a);
+            try {
+                MappedIntArray mapped = new MappedIntArray(file);
+                assertEquals(BinarySearch3637.findBreakpoint(a), BinarySearch3637.findBreakpoint(mapped));
+                for (int x = -5; x < 3 * length + 5; x++) {
+                    assertEquals(BinarySearch3637.search(x, a), BinarySearch3637.search(x, mapped));
+                }
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static String runCli(String input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            SearchCli.run(Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))),
+                    Channels.newChannel(output), x -> 2L * x);
+        } catch (NumberFormatException e) {
+            return output.toString(StandardCharsets.UTF_8) + "!";
+        }
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testSearchCliRun() throws IOException {
+        assertEquals("", runCli(""));
+        assertEquals("", runCli(" \n\t "));
+        assertEquals("10\n-6\n14\n", runCli("  5\n-3\t7"));
+        assertEquals("4294967294\n-4294967296\n", runCli("2147483647 -2147483648\n"));
+        assertEquals("2\n!", runCli("1 2147483648"));
+        assertEquals("2\n!", runCli("1 12a 3"));
+        assertEquals("!", runCli("-"));
+        assertEquals("2\n!", runCli("1 1\u00e9"));
+        assertEquals("!", runCli("1\u00a02"));
+        StringBuilder many = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            many.append(i).append(' ');
+            expected.append(2L * i).append('\n');
+        }
+        assertEquals(expected.toString(), runCli(many.toString()));
+    }
+}